@@ -1,6 +1,18 @@
 package fiap.tds;
 
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.DatabaseConnection;
+import fiap.tds.infraestructure.ExecutorBloqueante;
+import fiap.tds.infraestructure.HttpClientProvider;
+import fiap.tds.infraestructure.ServerConfig;
+import fiap.tds.service.ReportService;
+import fiap.tds.service.ValidacaoAssincrona;
+import fiap.tds.service.ValidacaoConcorrente;
+import fiap.tds.tools.ServicosExternosStub;
+import jakarta.ws.rs.ProcessingException;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.apache.logging.log4j.LogManager;
@@ -8,13 +20,18 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main class.
  */
 public class Main {
-    // Base URI the Grizzly HTTP server will listen on
-    public static final String BASE_URI = "http://localhost:8080/";
+    // Server settings (servidor.* keys) and the base URI the Grizzly HTTP server will listen on
+    private static final ServerConfig SERVIDOR = ServerConfig.carregar();
+    public static final String BASE_URI = SERVIDOR.getBaseUri();
 
     // Logger instance
     private static final Logger LOGGER = LogManager.getLogger(Main.class);
@@ -28,14 +45,26 @@ public class Main {
         // in fiap.tds.resources package
         final ResourceConfig rc = new ResourceConfig()
                 .packages("fiap.tds.resources")
-                .register(fiap.tds.infraestructure.CorsFilter.class);
+                .register(fiap.tds.infraestructure.CorsFilter.class)
+                .register(fiap.tds.infraestructure.ReadYourWritesFilter.class)
+                .register(fiap.tds.infraestructure.CompressaoInterceptor.class)
+                .register(fiap.tds.infraestructure.FormatoBinarioWriter.class);
 
         // Log resource registration
         LOGGER.info("Registering resources in package: fiap.tds.resources");
 
-        // create and start a new instance of grizzly http server
-        // exposing the Jersey application at BASE_URI
-        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc);
+        // create a new instance of grizzly http server exposing the Jersey application at BASE_URI;
+        // it is started only after the transport and the worker thread pool are configured
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(BASE_URI), rc, false);
+        SERVIDOR.aplicar(server);
+        if (SERVIDOR.isThreadsVirtuais()) {
+            usarThreadsVirtuais(server);
+        }
+        try {
+            server.start();
+        } catch (IOException e) {
+            throw new ProcessingException("Falha ao iniciar o servidor HTTP.", e);
+        }
 
         // Log server start
         LOGGER.info("Grizzly HTTP server started at: {}", BASE_URI);
@@ -44,18 +73,103 @@ public class Main {
     }
 
     /**
-     * Main method.
+     * Runs request handling on virtual threads (one per request) instead of Grizzly's fixed worker pool,
+     * so requests blocked on JDBC or on the external validations do not exhaust the workers. The pools
+     * behind them (connections, HTTP client, bulkheads) still bound how many run at once.
+     * Requires a Java 21+ runtime. The build targets release 17 (the toolchain the project is built and
+     * deployed with), so on a 17 runtime the option is ignored and a warning says so at startup.
+     */
+    private static void usarThreadsVirtuais(HttpServer server) {
+        ExecutorService executor;
+        try {
+            // Via reflection so the project still compiles with release 17; raise to a direct call with release 21
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("servidor.threads-virtuais=true ignorado: threads virtuais exigem Java 21+ (runtime: {}); "
+                    + "usando o pool fixo de workers (servidor.threads-worker)", System.getProperty("java.version"));
+            return;
+        }
+        for (NetworkListener listener : server.getListeners()) {
+            listener.getTransport().setWorkerThreadPool(executor);
+        }
+        LOGGER.info("Requisições atendidas em threads virtuais");
+    }
+
+    /**
+     * Stops the application gracefully: the server stops accepting connections and waits up to
+     * servidor.desligamento.drenagem-s for the in-flight requests (suspended ones included); then the
+     * background queues get up to servidor.desligamento.filas-s to finish before the HTTP client and
+     * the connection pools are closed. Async validations that do not finish stay PENDING and are
+     * resumed on the next start.
+     */
+    static void desligar(HttpServer server, ServicosExternosStub stub) {
+        long inicio = System.nanoTime();
+        LOGGER.info("Desligando: aguardando até {}s as requisições em andamento", SERVIDOR.getDrenagemSegundos());
+        try {
+            server.shutdown(SERVIDOR.getDrenagemSegundos(), TimeUnit.SECONDS).get();
+
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(SERVIDOR.getPrazoFilasSegundos());
+            ValidacaoAssincrona.encerrar(restanteMs(limite));
+            ExecutorBloqueante.encerrar(restanteMs(limite));
+            ValidacaoConcorrente.encerrar(restanteMs(limite));
+        } catch (ExecutionException e) {
+            LOGGER.error("Erro ao drenar o servidor HTTP: ", e);
+            server.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.shutdownNow();
+        }
+        HttpClientProvider.fechar();
+        DatabaseConnection.fechar();
+        if (stub != null) {
+            stub.parar();
+        }
+        LOGGER.info("Jersey app stopped em {} ms.", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+    private static long restanteMs(long limite) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime()));
+    }
+
+    /**
+     * Main method. Runs until the JVM is asked to stop (SIGTERM, Ctrl-C), then shuts down through
+     * {@link #desligar(HttpServer, ServicosExternosStub)}.
      * @param args
      * @throws IOException
+     * @throws InterruptedException
      */
-    public static void main(String[] args) throws IOException {
+    public static void main(String[] args) throws IOException, InterruptedException {
         System.setProperty("log4j.configurationFile", "src/main/resources/log4j2.xml");
+        ServicosExternosStub stub = null;
+        if (AppConfig.getBoolean("stub.embutido", false)) {
+            // As URLs precisam estar definidas antes de os serviços de validação serem carregados
+            stub = ServicosExternosStub.iniciar();
+            System.setProperty("cep.viacep.url", stub.getUrlViaCep());
+            System.setProperty("email.verificador.url", stub.getUrlVerificador());
+        }
+        try {
+            DatabaseConnection.verificarEsquema();
+        } catch (DatabaseException e) {
+            LOGGER.error("Esquema do banco incompatível, a API não será iniciada: {}", e.getMessage());
+            if (stub != null) {
+                stub.parar();
+            }
+            System.exit(1);
+        }
         final HttpServer server = startServer();
+        if (ValidacaoAssincrona.isHabilitada()) {
+            // Relatórios que ficaram PENDING na última execução voltam para a fila
+            new ReportService().retomarValidacoesPendentes();
+        }
+        final ServicosExternosStub stubIniciado = stub;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            desligar(server, stubIniciado);
+            // O hook do Log4j está desabilitado no log4j2.xml para que as mensagens do desligamento sejam gravadas
+            LogManager.shutdown();
+        }, "desligamento"));
         LOGGER.info("Jersey app started with endpoints available at {}", BASE_URI);
-        LOGGER.info("Hit Ctrl-C to stop it...");
-        System.in.read();
-        server.shutdownNow();
-        LOGGER.info("Jersey app stopped.");
+        LOGGER.info("Send SIGTERM or hit Ctrl-C to stop it...");
+        Thread.currentThread().join();
     }
 
 }
@@ -0,0 +1,103 @@
+package fiap.tds.infraestructure;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Classe responsável por carregar as configurações da aplicação.
+ *
+ * A ordem de precedência é: propriedades de sistema (-Dchave=valor), variáveis de ambiente
+ * (db.pool.max-size vira DB_POOL_MAX_SIZE), arquivo externo indicado em config.file
+ * e, por fim, o application.properties do classpath.
+ */
+public final class AppConfig {
+    private static final String ARQUIVO_PADRAO = "application.properties";
+    private static final Logger logger = LogManager.getLogger(AppConfig.class);
+    private static final Properties PROPRIEDADES = carregar();
+
+    private AppConfig() {
+    }
+
+    private static Properties carregar() {
+        Properties properties = new Properties();
+        try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(ARQUIVO_PADRAO)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            logger.error("Erro ao carregar " + ARQUIVO_PADRAO + ": ", e);
+        }
+
+        String arquivoExterno = System.getProperty("config.file", System.getenv("CONFIG_FILE"));
+        if (arquivoExterno != null && !arquivoExterno.isEmpty()) {
+            Path path = Paths.get(arquivoExterno);
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+                logger.info("Configurações carregadas de: {}", path.toAbsolutePath());
+            } catch (IOException e) {
+                logger.error("Erro ao carregar arquivo de configuração " + path + ": ", e);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Obtém o valor de uma configuração.
+     *
+     * @param chave a chave da configuração.
+     * @param padrao o valor usado quando a chave não estiver definida.
+     * @return o valor configurado ou o padrão.
+     */
+    public static String getString(String chave, String padrao) {
+        String valor = System.getProperty(chave);
+        if (valor == null) {
+            valor = System.getenv(chave.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_'));
+        }
+        if (valor == null) {
+            valor = PROPRIEDADES.getProperty(chave);
+        }
+        return valor != null ? valor.trim() : padrao;
+    }
+
+    public static int getInt(String chave, int padrao) {
+        String valor = getString(chave, null);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            logger.warn("Valor inválido para {}: {}. Usando {}.", chave, valor, padrao);
+            return padrao;
+        }
+    }
+
+    public static long getLong(String chave, long padrao) {
+        String valor = getString(chave, null);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            logger.warn("Valor inválido para {}: {}. Usando {}.", chave, valor, padrao);
+            return padrao;
+        }
+    }
+
+    public static boolean getBoolean(String chave, boolean padrao) {
+        String valor = getString(chave, null);
+        if (valor == null || valor.isEmpty()) {
+            return padrao;
+        }
+        return Boolean.parseBoolean(valor);
+    }
+}
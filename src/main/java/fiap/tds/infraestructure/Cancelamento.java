@@ -0,0 +1,93 @@
+package fiap.tds.infraestructure;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Permite cancelar, a partir de outra thread, uma tarefa que está bloqueada em uma chamada HTTP.
+ *
+ * Interromper a thread não desbloqueia o socket do HttpClient; por isso a tarefa roda vinculada a um
+ * cancelamento, o {@link HttpClientProvider} registra nele a requisição em andamento e
+ * {@link #cancelar()} a aborta, como o próprio HttpClientProvider faz no tempo limite.
+ * Uma chamada cancelada não conta como falha da dependência no {@link CircuitBreaker}, e quem a
+ * aguardava pelo {@link SingleFlight} faz a própria chamada em vez de receber o cancelamento.
+ */
+public final class Cancelamento {
+    private static final ThreadLocal<Cancelamento> ATUAL = new ThreadLocal<>();
+
+    private HttpUriRequest requisicao;
+    private boolean cancelado;
+
+    /**
+     * Executa a tarefa na thread atual, vinculada a este cancelamento.
+     *
+     * @param tarefa a tarefa.
+     * @param <T> o tipo do resultado.
+     * @return o resultado da tarefa.
+     */
+    public <T> T executar(Supplier<T> tarefa) {
+        Cancelamento anterior = ATUAL.get();
+        ATUAL.set(this);
+        try {
+            return tarefa.get();
+        } finally {
+            if (anterior != null) {
+                ATUAL.set(anterior);
+            } else {
+                ATUAL.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancela a tarefa, abortando a requisição HTTP em andamento e as que ela ainda fizer.
+     */
+    public synchronized void cancelar() {
+        cancelado = true;
+        if (requisicao != null) {
+            requisicao.abort();
+        }
+    }
+
+    private synchronized void definir(HttpUriRequest requisicao) {
+        this.requisicao = requisicao;
+        if (cancelado && requisicao != null) {
+            requisicao.abort();
+        }
+    }
+
+    /**
+     * Registra a requisição que a thread atual vai fazer; se a tarefa já foi cancelada, ela é abortada
+     * antes de começar.
+     */
+    static void acompanhar(HttpUriRequest requisicao) {
+        Cancelamento atual = ATUAL.get();
+        if (atual != null) {
+            atual.definir(requisicao);
+        }
+    }
+
+    /**
+     * Esquece a requisição da thread atual, que terminou.
+     */
+    static void liberar() {
+        Cancelamento atual = ATUAL.get();
+        if (atual != null) {
+            atual.definir(null);
+        }
+    }
+
+    /**
+     * Indica se a tarefa da thread atual foi cancelada.
+     */
+    static boolean atualCancelado() {
+        Cancelamento atual = ATUAL.get();
+        if (atual == null) {
+            return false;
+        }
+        synchronized (atual) {
+            return atual.cancelado;
+        }
+    }
+}
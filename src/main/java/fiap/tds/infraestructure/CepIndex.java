@@ -0,0 +1,124 @@
+package fiap.tds.infraestructure;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Índice local de CEPs em arquivo binário, lido por memória mapeada.
+ *
+ * O arquivo tem um cabeçalho (magic, versão, quantidade) e registros de tamanho fixo ordenados pelo
+ * início da faixa: início (int), fim (int) e UF (2 bytes ASCII + 2 de alinhamento). A busca é binária
+ * direto no buffer mapeado, sem objetos por registro no heap. O arquivo é gerado pela ferramenta
+ * fiap.tds.tools.CepIndexBuilder.
+ */
+public final class CepIndex {
+    private static final int MAGIC = 0x43455049; // "CEPI"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 12;
+    private static final int TAMANHO_REGISTRO = 12;
+
+    private final MappedByteBuffer buffer;
+    private final int registros;
+
+    private CepIndex(MappedByteBuffer buffer, int registros) {
+        this.buffer = buffer;
+        this.registros = registros;
+    }
+
+    /**
+     * Mapeia um arquivo de índice em memória.
+     *
+     * @param arquivo o caminho do índice.
+     * @return o índice mapeado.
+     * @throws IOException se o arquivo não puder ser lido ou não for um índice válido.
+     */
+    public static CepIndex abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois que o canal é fechado
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (canal.size() < TAMANHO_CABECALHO || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Arquivo não é um índice de CEP: " + arquivo);
+            }
+            if (buffer.getInt(4) != VERSAO) {
+                throw new IOException("Versão do índice de CEP não suportada: " + buffer.getInt(4));
+            }
+            int registros = buffer.getInt(8);
+            if (canal.size() != TAMANHO_CABECALHO + (long) registros * TAMANHO_REGISTRO) {
+                throw new IOException("Índice de CEP truncado: " + arquivo);
+            }
+            return new CepIndex(buffer, registros);
+        }
+    }
+
+    /**
+     * Grava um índice a partir de faixas já ordenadas e sem sobreposição.
+     *
+     * @param arquivo o caminho do índice a ser criado ou substituído.
+     * @param inicios o início de cada faixa (CEP com 8 dígitos).
+     * @param fins o fim de cada faixa, inclusive.
+     * @param ufs a UF de cada faixa.
+     * @throws IOException se o arquivo não puder ser gravado.
+     */
+    public static void gravar(Path arquivo, int[] inicios, int[] fins, String[] ufs) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO + inicios.length * TAMANHO_REGISTRO);
+        buffer.putInt(MAGIC).putInt(VERSAO).putInt(inicios.length);
+        for (int i = 0; i < inicios.length; i++) {
+            byte[] uf = ufs[i].getBytes(StandardCharsets.US_ASCII);
+            buffer.putInt(inicios[i]).putInt(fins[i]).put(uf[0]).put(uf[1]).putShort((short) 0);
+        }
+        buffer.flip();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Procura a faixa que contém o CEP.
+     *
+     * @param cep o CEP com 8 dígitos, como inteiro.
+     * @return a UF da faixa, ou null se nenhuma faixa contiver o CEP.
+     */
+    public String buscarUf(int cep) {
+        // Última faixa com início <= cep
+        int baixo = 0;
+        int alto = registros - 1;
+        int encontrado = -1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (inicio(meio) <= cep) {
+                encontrado = meio;
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        if (encontrado < 0 || cep > buffer.getInt(posicao(encontrado) + 4)) {
+            return null;
+        }
+        int posicao = posicao(encontrado) + 8;
+        return new String(new char[]{(char) buffer.get(posicao), (char) buffer.get(posicao + 1)});
+    }
+
+    /**
+     * Retorna a quantidade de faixas do índice.
+     */
+    public int getRegistros() {
+        return registros;
+    }
+
+    private int inicio(int registro) {
+        return buffer.getInt(posicao(registro));
+    }
+
+    private static int posicao(int registro) {
+        return TAMANHO_CABECALHO + registro * TAMANHO_REGISTRO;
+    }
+}
@@ -0,0 +1,219 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proteção em volta de uma dependência externa: circuit breaker, limite de chamadas simultâneas
+ * (bulkhead) e política para quando a dependência está indisponível.
+ *
+ * Depois de resiliencia.falhas-para-abrir falhas seguidas o circuito abre e as chamadas nem são feitas
+ * durante resiliencia.tempo-aberto-ms; passado esse tempo, uma única chamada de teste decide se o
+ * circuito fecha ou abre de novo. Cada chave pode ser sobrescrita por dependência
+ * (resiliencia.viacep.timeout-ms, por exemplo).
+ */
+public final class CircuitBreaker {
+    private static final ConcurrentMap<String, CircuitBreaker> REGISTRO = new ConcurrentHashMap<>();
+    private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+    /**
+     * Estados do circuito.
+     */
+    public enum Estado {
+        FECHADO, ABERTO, MEIO_ABERTO
+    }
+
+    /**
+     * O que fazer quando a dependência falha ou está indisponível: rejeitar a operação
+     * ou aceitá-la sem a validação, registrando o aceite.
+     */
+    public enum Politica {
+        REJEITAR, ACEITAR
+    }
+
+    /**
+     * Chamada protegida pelo circuito. Qualquer DatabaseException ou RuntimeException conta como falha
+     * da dependência.
+     *
+     * @param <T> o tipo do resultado.
+     */
+    @FunctionalInterface
+    public interface Chamada<T> {
+        T executar() throws DatabaseException;
+    }
+
+    private final String nome;
+    private final int falhasParaAbrir;
+    private final long tempoAbertoMs;
+    private final int maxConcorrentes;
+    private final long timeoutMs;
+    private final Politica politica;
+    private final Semaphore bulkhead;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long abertoDesde;
+
+    private final AtomicLong rejeitadasAberto = new AtomicLong();
+    private final AtomicLong rejeitadasBulkhead = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong aceitasDegradadas = new AtomicLong();
+
+    private CircuitBreaker(String nome) {
+        this.nome = nome;
+        String prefixo = "resiliencia." + nome + ".";
+        this.falhasParaAbrir = Math.max(1, AppConfig.getInt(prefixo + "falhas-para-abrir", AppConfig.getInt("resiliencia.falhas-para-abrir", 5)));
+        this.tempoAbertoMs = AppConfig.getLong(prefixo + "tempo-aberto-ms", AppConfig.getLong("resiliencia.tempo-aberto-ms", 30000));
+        this.maxConcorrentes = AppConfig.getInt(prefixo + "max-concorrentes", AppConfig.getInt("resiliencia.max-concorrentes", 20));
+        this.timeoutMs = AppConfig.getLong(prefixo + "timeout-ms", AppConfig.getLong("resiliencia.timeout-ms", 3000));
+        String politicaConfigurada = AppConfig.getString(prefixo + "politica", AppConfig.getString("resiliencia.politica", "REJEITAR"));
+        this.politica = Politica.valueOf(politicaConfigurada.trim().toUpperCase(Locale.ROOT));
+        this.bulkhead = new Semaphore(maxConcorrentes);
+    }
+
+    /**
+     * Retorna o circuito da dependência, criando-o no primeiro uso.
+     *
+     * @param nome o nome da dependência, usado nas chaves de configuração.
+     * @return o circuito da dependência.
+     */
+    public static CircuitBreaker de(String nome) {
+        return REGISTRO.computeIfAbsent(nome, CircuitBreaker::new);
+    }
+
+    /**
+     * Retorna o tempo máximo de uma chamada à dependência.
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Executa a chamada se o circuito e o bulkhead permitirem.
+     *
+     * @param chamada a chamada à dependência.
+     * @param valorDegradado o resultado usado quando a política é ACEITAR e a dependência falha.
+     * @param <T> o tipo do resultado.
+     * @return o resultado da chamada, ou valorDegradado.
+     * @throws DatabaseException se a dependência falhar ou estiver indisponível e a política for REJEITAR.
+     */
+    public <T> T executar(Chamada<T> chamada, T valorDegradado) throws DatabaseException {
+        if (!permitir()) {
+            rejeitadasAberto.incrementAndGet();
+            return degradar(new DatabaseException("Serviço externo " + nome + " indisponível."), valorDegradado);
+        }
+        if (!bulkhead.tryAcquire()) {
+            rejeitadasBulkhead.incrementAndGet();
+            liberarTeste();
+            return degradar(new DatabaseException("Serviço externo " + nome + " sobrecarregado."), valorDegradado);
+        }
+        try {
+            T resultado = chamada.executar();
+            registrarSucesso();
+            return resultado;
+        } catch (DatabaseException e) {
+            if (Cancelamento.atualCancelado()) {
+                // Quem esperava a chamada desistiu dela; não diz nada sobre a dependência
+                liberarTeste();
+                throw e;
+            }
+            registrarFalha();
+            return degradar(e, valorDegradado);
+        } catch (RuntimeException e) {
+            // Sem isso, uma chamada de teste que lança RuntimeException deixaria o circuito meio aberto para sempre
+            registrarFalha();
+            return degradar(new DatabaseException("Erro inesperado no serviço externo " + nome + ": " + e.getMessage(), e),
+                    valorDegradado);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> T degradar(DatabaseException erro, T valorDegradado) throws DatabaseException {
+        if (politica == Politica.ACEITAR) {
+            aceitasDegradadas.incrementAndGet();
+            logger.warn("Validação de {} ignorada, operação aceita sem ela: {}", nome, erro.getMessage());
+            return valorDegradado;
+        }
+        throw erro;
+    }
+
+    private synchronized boolean permitir() {
+        if (estado == Estado.FECHADO) {
+            return true;
+        }
+        if (estado == Estado.ABERTO && System.currentTimeMillis() - abertoDesde >= tempoAbertoMs) {
+            // Deixa passar uma chamada de teste
+            estado = Estado.MEIO_ABERTO;
+            logger.info("Circuito {} meio aberto, testando a dependência", nome);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Se a chamada de teste não chegou a ser feita, o circuito volta a aceitar outra tentativa.
+     */
+    private synchronized void liberarTeste() {
+        if (estado == Estado.MEIO_ABERTO) {
+            estado = Estado.ABERTO;
+            abertoDesde = 0;
+        }
+    }
+
+    private synchronized void registrarSucesso() {
+        if (estado != Estado.FECHADO) {
+            logger.info("Circuito {} fechado", nome);
+        }
+        estado = Estado.FECHADO;
+        falhasSeguidas = 0;
+    }
+
+    private synchronized void registrarFalha() {
+        falhas.incrementAndGet();
+        falhasSeguidas++;
+        if (estado == Estado.MEIO_ABERTO || (estado == Estado.FECHADO && falhasSeguidas >= falhasParaAbrir)) {
+            estado = Estado.ABERTO;
+            abertoDesde = System.currentTimeMillis();
+            logger.warn("Circuito {} aberto após {} falhas seguidas", nome, falhasSeguidas);
+        }
+    }
+
+    private synchronized Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("estado", estado.name());
+        estatisticas.put("falhasSeguidas", falhasSeguidas);
+        estatisticas.put("falhas", falhas.get());
+        estatisticas.put("rejeitadasAberto", rejeitadasAberto.get());
+        estatisticas.put("rejeitadasBulkhead", rejeitadasBulkhead.get());
+        estatisticas.put("emUso", maxConcorrentes - bulkhead.availablePermits());
+        estatisticas.put("maxConcorrentes", maxConcorrentes);
+        estatisticas.put("timeoutMs", timeoutMs);
+        estatisticas.put("politica", politica.name());
+        estatisticas.put("aceitasDegradadas", aceitasDegradadas.get());
+        return estatisticas;
+    }
+
+    /**
+     * Retorna o estado de todos os circuitos já criados.
+     *
+     * @return mapa do nome da dependência para o estado e os contadores do circuito.
+     */
+    public static Map<String, Object> getEstados() {
+        Map<String, Object> estados = new TreeMap<>();
+        for (CircuitBreaker circuito : REGISTRO.values()) {
+            estados.put(circuito.nome, circuito.getEstatisticas());
+        }
+        return estados;
+    }
+}
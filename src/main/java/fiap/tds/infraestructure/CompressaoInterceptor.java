@@ -0,0 +1,264 @@
+package fiap.tds.infraestructure;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime o corpo das respostas com gzip ou deflate, conforme o Accept-Encoding do cliente.
+ *
+ * Os primeiros bytes ficam em um buffer de compressao.min-bytes: se o corpo terminar antes disso, vai
+ * sem compressão, porque em respostas pequenas o cabeçalho do gzip e a CPU gasta não compensam. Passado
+ * o limite, o Content-Encoding é definido e o restante segue comprimido; os flush do corpo (exportação em
+ * streaming) continuam chegando ao cliente. Respostas que já têm Content-Encoding não são alteradas.
+ */
+@Provider
+public class CompressaoInterceptor implements WriterInterceptor {
+    private static final boolean HABILITADA = AppConfig.getBoolean("compressao.habilitada", true);
+    private static final int MINIMO_BYTES = Math.max(0, AppConfig.getInt("compressao.min-bytes", 1024));
+    private static final int NIVEL = AppConfig.getInt("compressao.nivel", 6);
+    private static final int TAMANHO_BUFFER = 8192;
+
+    private static final AtomicLong COMPRIMIDAS = new AtomicLong();
+    private static final AtomicLong ABAIXO_DO_MINIMO = new AtomicLong();
+    private static final AtomicLong BYTES_ORIGINAIS = new AtomicLong();
+    private static final AtomicLong BYTES_COMPRIMIDOS = new AtomicLong();
+
+    @Context
+    private HttpHeaders httpHeaders;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        if (!HABILITADA || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String codificacao = escolherCodificacao(httpHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (codificacao == null) {
+            context.proceed();
+            return;
+        }
+
+        SaidaComprimida saida = new SaidaComprimida(context.getOutputStream(), headers, codificacao);
+        context.setOutputStream(saida);
+        try {
+            context.proceed();
+        } finally {
+            saida.concluir();
+        }
+    }
+
+    /**
+     * Escolhe a codificação pelo Accept-Encoding, preferindo gzip em caso de empate.
+     *
+     * @param acceptEncoding o cabeçalho enviado pelo cliente.
+     * @return "gzip", "deflate" ou null se o cliente não aceitar nenhuma das duas.
+     */
+    static String escolherCodificacao(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double qualquer = -1;
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.split(";");
+            String nome = partes[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parametro.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (nome.equals("gzip") || nome.equals("x-gzip")) {
+                gzip = Math.max(gzip, q);
+            } else if (nome.equals("deflate")) {
+                deflate = q;
+            } else if (nome.equals("*")) {
+                qualquer = q;
+            }
+        }
+        // "*" vale para as codificações não citadas
+        if (gzip < 0) {
+            gzip = qualquer;
+        }
+        if (deflate < 0) {
+            deflate = qualquer;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? "gzip" : "deflate";
+    }
+
+    /**
+     * Retorna as métricas da compressão.
+     *
+     * @return mapa com as respostas comprimidas, as que ficaram abaixo do mínimo, os bytes antes e
+     *         depois da compressão e a taxa de compressão.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        long originais = BYTES_ORIGINAIS.get();
+        long comprimidos = BYTES_COMPRIMIDOS.get();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("habilitada", HABILITADA);
+        estatisticas.put("minimoBytes", MINIMO_BYTES);
+        estatisticas.put("comprimidas", COMPRIMIDAS.get());
+        estatisticas.put("abaixoDoMinimo", ABAIXO_DO_MINIMO.get());
+        estatisticas.put("bytesOriginais", originais);
+        estatisticas.put("bytesComprimidos", comprimidos);
+        estatisticas.put("taxa", originais > 0 ? (double) comprimidos / originais : 0);
+        return estatisticas;
+    }
+
+    /**
+     * Guarda o início do corpo até decidir se comprime; depois repassa os bytes ao compressor.
+     */
+    private static final class SaidaComprimida extends OutputStream {
+        private final OutputStream destino;
+        private final MultivaluedMap<String, Object> headers;
+        private final String codificacao;
+        private final byte[] inicio = new byte[MINIMO_BYTES];
+        private int tamanhoInicio;
+        private long bytesOriginais;
+        private ContadorSaida contador;
+        private DeflaterOutputStream compressor;
+        private Deflater deflater;
+        private boolean concluida;
+
+        SaidaComprimida(OutputStream destino, MultivaluedMap<String, Object> headers, String codificacao) {
+            this.destino = destino;
+            this.headers = headers;
+            this.codificacao = codificacao;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (concluida) {
+                throw new IOException("Resposta já concluída.");
+            }
+            bytesOriginais += len;
+            if (compressor != null) {
+                compressor.write(b, off, len);
+            } else if (tamanhoInicio + len <= inicio.length) {
+                System.arraycopy(b, off, inicio, tamanhoInicio, len);
+                tamanhoInicio += len;
+            } else {
+                // Passou do mínimo: os cabeçalhos ainda não foram enviados, então dá para definir o Content-Encoding
+                iniciarCompressao();
+                compressor.write(inicio, 0, tamanhoInicio);
+                compressor.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Antes do mínimo não há o que enviar; enviar agora obrigaria a responder sem compressão
+            if (compressor != null) {
+                compressor.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            concluir();
+            destino.close();
+        }
+
+        void concluir() throws IOException {
+            if (concluida) {
+                return;
+            }
+            concluida = true;
+            if (compressor == null) {
+                ABAIXO_DO_MINIMO.incrementAndGet();
+                destino.write(inicio, 0, tamanhoInicio);
+                return;
+            }
+            try {
+                // Fechar o compressor não fecha o destino: o ContadorSaida ignora o close
+                compressor.close();
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+            COMPRIMIDAS.incrementAndGet();
+            BYTES_ORIGINAIS.addAndGet(bytesOriginais);
+            BYTES_COMPRIMIDOS.addAndGet(contador.bytes);
+        }
+
+        private void iniciarCompressao() throws IOException {
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, codificacao);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            contador = new ContadorSaida(destino);
+            if (codificacao.equals("gzip")) {
+                compressor = new GZIPOutputStream(contador, TAMANHO_BUFFER, true) {
+                    {
+                        def.setLevel(NIVEL);
+                    }
+                };
+            } else {
+                // "deflate" no HTTP é o formato zlib (RFC 1950), que é o padrão do Deflater; o
+                // DeflaterOutputStream não libera um Deflater recebido, por isso ele é guardado
+                deflater = new Deflater(NIVEL);
+                compressor = new DeflaterOutputStream(contador, deflater, TAMANHO_BUFFER, true);
+            }
+        }
+    }
+
+    /**
+     * Conta os bytes que saem do compressor. Não fecha o destino: quem fecha é o Jersey.
+     */
+    private static final class ContadorSaida extends OutputStream {
+        private final OutputStream destino;
+        private long bytes;
+
+        ContadorSaida(OutputStream destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destino.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            destino.write(b, off, len);
+            bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+    }
+}
@@ -40,6 +40,8 @@ public class CorsFilter implements ContainerResponseFilter {
         headers.add("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT, OPTIONS, HEAD, PATCH");
         headers.add("Access-Control-Allow-Headers","origin, content-type, accept, authorization");
         headers.add("Access-Control-Allow-Credentials", "true");
+        // Permite que o navegador leia o cursor das listagens paginadas.
+        headers.add("Access-Control-Expose-Headers", "X-Next-Cursor, Link, Location, Preference-Applied");
     }
 
 }
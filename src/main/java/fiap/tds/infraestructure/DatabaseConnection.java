@@ -1,38 +1,352 @@
 package fiap.tds.infraestructure;
 
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import fiap.tds.exception.DatabaseException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Classe responsável por gerenciar a conexão com o banco de dados.
+ *
+ * As conexões vêm de um pool limitado; fechar a conexão devolve ela ao pool.
+ * Os statements preparados ficam no cache do próprio driver, em cada conexão física do pool.
+ * Dentro de uma {@link UnitOfWork} todas as chamadas recebem a conexão da transação.
+ *
+ * Leituras usam {@link #getReadConnection()}, que vai para o pool da réplica quando
+ * db.replica.url está configurada; escritas continuam no primário via {@link #getConnection()}.
  */
 public class DatabaseConnection {
-    private static final String URL = "jdbc:oracle:thin:@oracle.fiap.com.br:1521:ORCL";
-    private static final String USER = "";
-    private static final String PASSWORD = "";
+    // Perfil do banco: "oracle" (padrão) ou "h2" (embarcado em modo Oracle, para rodar e medir localmente)
+    private static final String PROFILE = AppConfig.getString("db.profile", "oracle");
+    private static final String URL = AppConfig.getString("db.url", AppConfig.getString("db." + PROFILE + ".url", ""));
+    private static final String USER = AppConfig.getString("db.user", AppConfig.getString("db." + PROFILE + ".user", ""));
+    private static final String PASSWORD = AppConfig.getString("db.password", AppConfig.getString("db." + PROFILE + ".password", ""));
+    private static final String SCHEMA = AppConfig.getString("db." + PROFILE + ".schema", "");
+    // Script que cria as colunas status e motivo_status de tb_report em bancos anteriores a elas
+    private static final String MIGRACAO_STATUS = AppConfig.getString("db." + PROFILE + ".migracao-status", "");
+    private static final boolean APLICAR_MIGRACOES = AppConfig.getBoolean("db.migracao.aplicar", true);
+    // Statements preparados mantidos pelo driver em cada conexão física (0 desativa)
+    private static final int CACHE_STATEMENTS = Math.max(0, AppConfig.getInt("db.statement-cache.size", 50));
+    // Réplica de leitura; vazia significa que as leituras também vão para o primário
+    private static final String REPLICA_URL = AppConfig.getString("db.replica.url", "");
+    private static final String REPLICA_USER = AppConfig.getString("db.replica.user", USER);
+    private static final String REPLICA_PASSWORD = AppConfig.getString("db.replica.password", PASSWORD);
+    // Se a réplica falhar, a leitura é refeita no primário em vez de devolver erro
+    private static final boolean REPLICA_FALLBACK = AppConfig.getBoolean("db.replica.fallback-primario", true);
+    // Depois de uma escrita, as leituras da mesma requisição vão para o primário
+    private static final boolean READ_YOUR_WRITES = AppConfig.getBoolean("db.replica.read-your-writes", true);
+    private static final ThreadLocal<Boolean> ESCREVEU = new ThreadLocal<>();
+    // Evitam abrir um pool só para fechá-lo no desligamento
+    private static volatile boolean poolCriado;
+    private static volatile boolean replicaCriada;
     private static final Logger logger = LogManager.getLogger(DatabaseConnection.class);
 
     /**
-     * Método para obter uma conexão com o banco de dados.
+     * Inicializa o pool apenas no primeiro uso.
+     */
+    private static class PoolHolder {
+        private static final HikariDataSource DATA_SOURCE = criarDataSource();
+    }
+
+    /**
+     * Inicializa o pool da réplica apenas na primeira leitura, e só se ela estiver configurada.
+     */
+    private static class ReplicaHolder {
+        private static final HikariDataSource DATA_SOURCE = REPLICA_URL.isEmpty() ? null : criarDataSourceReplica();
+    }
+
+    private static HikariDataSource criarDataSource() {
+        HikariConfig config = criarConfig("bluemind-pool", "db.pool.", URL, USER, PASSWORD);
+        logger.info("Criando pool de conexões ({}) para {} (min={}, max={})",
+                PROFILE, URL, config.getMinimumIdle(), config.getMaximumPoolSize());
+        HikariDataSource dataSource = new HikariDataSource(config);
+        poolCriado = true;
+        if (!SCHEMA.isEmpty()) {
+            executarScript(dataSource, SCHEMA);
+        }
+        return dataSource;
+    }
+
+    private static HikariDataSource criarDataSourceReplica() {
+        HikariConfig config = criarConfig("bluemind-replica-pool", "db.replica.pool.", REPLICA_URL, REPLICA_USER, REPLICA_PASSWORD);
+        config.setReadOnly(true);
+        logger.info("Criando pool da réplica de leitura para {} (min={}, max={})",
+                REPLICA_URL, config.getMinimumIdle(), config.getMaximumPoolSize());
+        HikariDataSource dataSource = new HikariDataSource(config);
+        replicaCriada = true;
+        return dataSource;
+    }
+
+    /**
+     * Monta a configuração de um pool. Cada chave é lida com o prefixo informado e, se ausente,
+     * com o prefixo db.pool. do primário.
+     */
+    private static HikariConfig criarConfig(String nome, String prefixo, String url, String user, String password) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(nome);
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMinimumIdle(AppConfig.getInt(prefixo + "min-idle", AppConfig.getInt("db.pool.min-idle", 2)));
+        config.setMaximumPoolSize(AppConfig.getInt(prefixo + "max-size", AppConfig.getInt("db.pool.max-size", 10)));
+        config.setConnectionTimeout(AppConfig.getLong(prefixo + "connection-timeout-ms", AppConfig.getLong("db.pool.connection-timeout-ms", 30000)));
+        config.setIdleTimeout(AppConfig.getLong(prefixo + "idle-timeout-ms", AppConfig.getLong("db.pool.idle-timeout-ms", 600000)));
+        config.setMaxLifetime(AppConfig.getLong(prefixo + "max-lifetime-ms", AppConfig.getLong("db.pool.max-lifetime-ms", 1800000)));
+        // A conexão é validada com Connection.isValid ao ser emprestada
+        config.setValidationTimeout(AppConfig.getLong(prefixo + "validation-timeout-ms", AppConfig.getLong("db.pool.validation-timeout-ms", 5000)));
+        config.setLeakDetectionThreshold(AppConfig.getLong(prefixo + "leak-detection-threshold-ms", AppConfig.getLong("db.pool.leak-detection-threshold-ms", 60000)));
+        // Não derruba a aplicação se o banco estiver fora do ar na inicialização
+        config.setInitializationFailTimeout(-1);
+        String propriedadeCache = propriedadeCacheStatements(url);
+        if (propriedadeCache != null) {
+            config.addDataSourceProperty(propriedadeCache, String.valueOf(CACHE_STATEMENTS));
+        }
+        return config;
+    }
+
+    /**
+     * Propriedade do driver que define o tamanho do cache de statements de cada conexão. No Oracle é o
+     * cache implícito do ojdbc, que reaproveita o statement quando o repositório chama prepareStatement
+     * com o mesmo SQL depois de fechá-lo; no H2 é o cache de comandos já compilados da sessão.
+     *
+     * @param url a URL JDBC do pool.
+     * @return o nome da propriedade, ou null se o driver não for conhecido.
+     */
+    private static String propriedadeCacheStatements(String url) {
+        if (url.startsWith("jdbc:oracle:")) {
+            return "oracle.jdbc.implicitStatementCacheSize";
+        }
+        if (url.startsWith("jdbc:h2:")) {
+            return "QUERY_CACHE_SIZE";
+        }
+        return null;
+    }
+
+    /**
+     * Executa um script SQL do classpath, com os comandos separados por ';'.
+     *
+     * @param dataSource o pool onde o script será executado.
+     * @param recurso o caminho do script no classpath.
+     */
+    private static void executarScript(HikariDataSource dataSource, String recurso) {
+        InputStream in = DatabaseConnection.class.getClassLoader().getResourceAsStream(recurso);
+        if (in == null) {
+            logger.error("Script de schema não encontrado: {}", recurso);
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            StringBuilder comando = new StringBuilder();
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                if (linha.trim().startsWith("--")) {
+                    continue;
+                }
+                comando.append(linha).append('\n');
+                if (linha.trim().endsWith(";")) {
+                    stmt.execute(comando.substring(0, comando.lastIndexOf(";")));
+                    comando.setLength(0);
+                }
+            }
+            logger.info("Script de schema executado: {}", recurso);
+        } catch (IOException | SQLException e) {
+            logger.error("Erro ao executar o script de schema " + recurso + ": ", e);
+        }
+    }
+
+    /**
+     * Verifica, na inicialização, se tb_report tem as colunas status e motivo_status, usadas por todas as
+     * consultas de relatórios. Se faltarem e db.migracao.aplicar estiver ligado, aplica o script de
+     * db.&lt;perfil&gt;.migracao-status e verifica de novo.
+     *
+     * Se o banco estiver fora do ar, só registra um aviso: a API sobe mesmo assim, como com o pool.
+     *
+     * @throws DatabaseException se as colunas continuarem ausentes.
+     */
+    public static void verificarEsquema() throws DatabaseException {
+        HikariDataSource dataSource = PoolHolder.DATA_SOURCE;
+        try (Connection conn = dataSource.getConnection()) {
+            if (possuiColunasStatus(conn)) {
+                return;
+            }
+        } catch (SQLException e) {
+            logger.warn("Não foi possível verificar o esquema do banco na inicialização: {}", e.getMessage());
+            return;
+        }
+
+        if (!APLICAR_MIGRACOES || MIGRACAO_STATUS.isEmpty()) {
+            throw new DatabaseException("Colunas status e motivo_status ausentes em tb_report; aplique "
+                    + (MIGRACAO_STATUS.isEmpty() ? "a migração de status" : MIGRACAO_STATUS) + ".");
+        }
+        logger.warn("Colunas status e motivo_status ausentes em tb_report; aplicando {}", MIGRACAO_STATUS);
+        executarScript(dataSource, MIGRACAO_STATUS);
+        try (Connection conn = dataSource.getConnection()) {
+            if (!possuiColunasStatus(conn)) {
+                throw new DatabaseException("Colunas status e motivo_status continuam ausentes em tb_report depois de "
+                        + MIGRACAO_STATUS + ".");
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao verificar o esquema do banco: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean possuiColunasStatus(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeQuery("SELECT status, motivo_status FROM tb_report WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            logger.debug("Consulta das colunas de status falhou: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Método para obter uma conexão de escrita com o banco de dados (primário).
+     *
+     * Marca a thread como tendo escrito, para que as leituras seguintes da mesma requisição
+     * também vão ao primário quando db.replica.read-your-writes estiver ligado.
      *
      * @return Connection objeto de conexão com o banco de dados.
-     * @throws DatabaseException se ocorrer um erro ao conectar.
+     * @throws DatabaseException se ocorrer um erro ao conectar ou a requisição já tiver excedido o tempo limite.
      */
     public static Connection getConnection() throws DatabaseException {
+        // Não grava nada para uma requisição que já foi respondida por tempo esgotado
+        ExecutorBloqueante.verificarAbandono();
+        Connection vinculada = UnitOfWork.conexaoVinculada();
+        if (vinculada != null) {
+            return vinculada;
+        }
+        ESCREVEU.set(Boolean.TRUE);
         try {
-            logger.debug("Tentando conectar ao banco de dados...");
-            Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
-            logger.debug("Conexão estabelecida com sucesso.");
-            return connection;
+            return obterDoPool(PoolHolder.DATA_SOURCE);
         } catch (SQLException e) {
             logger.error("Erro ao conectar ao banco de dados: ", e);
             throw new DatabaseException("Erro ao conectar ao banco de dados", e);
         }
     }
+
+    /**
+     * Método para obter uma conexão de leitura.
+     *
+     * Usa a conexão da {@link UnitOfWork} ativa, o primário se a requisição já escreveu
+     * (read-your-writes) ou se não houver réplica, e a réplica nos demais casos.
+     * Se a réplica falhar e db.replica.fallback-primario estiver ligado, lê do primário.
+     *
+     * @return Connection objeto de conexão com o banco de dados.
+     * @throws DatabaseException se ocorrer um erro ao conectar.
+     */
+    public static Connection getReadConnection() throws DatabaseException {
+        Connection vinculada = UnitOfWork.conexaoVinculada();
+        if (vinculada != null) {
+            return vinculada;
+        }
+        HikariDataSource replica = ReplicaHolder.DATA_SOURCE;
+        boolean escreveu = READ_YOUR_WRITES && Boolean.TRUE.equals(ESCREVEU.get());
+        try {
+            if (replica == null || escreveu) {
+                return obterDoPool(PoolHolder.DATA_SOURCE);
+            }
+            try {
+                return obterDoPool(replica);
+            } catch (SQLException e) {
+                if (!REPLICA_FALLBACK) {
+                    throw e;
+                }
+                logger.warn("Réplica indisponível, lendo do primário: {}", e.getMessage());
+                return obterDoPool(PoolHolder.DATA_SOURCE);
+            }
+        } catch (SQLException e) {
+            logger.error("Erro ao conectar ao banco de dados para leitura: ", e);
+            throw new DatabaseException("Erro ao conectar ao banco de dados", e);
+        }
+    }
+
+    /**
+     * Esquece as escritas registradas na thread atual. Chamado no início e no fim de cada requisição.
+     */
+    public static void limparEscritas() {
+        ESCREVEU.remove();
+    }
+
+    private static Connection obterDoPool(HikariDataSource dataSource) throws SQLException {
+        logger.debug("Obtendo conexão do pool {}...", dataSource.getPoolName());
+        Connection connection = dataSource.getConnection();
+        logger.debug("Conexão obtida com sucesso.");
+        return connection;
+    }
+
+    /**
+     * Fecha os pools do primário e da réplica que tiverem sido criados. Chamado no desligamento,
+     * depois que as requisições e as filas terminaram.
+     */
+    public static void fechar() {
+        if (poolCriado) {
+            PoolHolder.DATA_SOURCE.close();
+            logger.info("Pool de conexões fechado.");
+        }
+        if (replicaCriada) {
+            ReplicaHolder.DATA_SOURCE.close();
+            logger.info("Pool da réplica de leitura fechado.");
+        }
+    }
+
+    /**
+     * Retorna o estado atual do pool de conexões.
+     *
+     * @return mapa com conexões ativas, ociosas, total e threads aguardando.
+     */
+    public static Map<String, Object> getEstatisticasPool() {
+        return estatisticas(PoolHolder.DATA_SOURCE);
+    }
+
+    /**
+     * Retorna o estado atual do pool da réplica de leitura.
+     *
+     * @return mapa com as mesmas chaves de {@link #getEstatisticasPool()}, ou vazio se não houver réplica.
+     */
+    public static Map<String, Object> getEstatisticasPoolReplica() {
+        HikariDataSource replica = ReplicaHolder.DATA_SOURCE;
+        return replica != null ? estatisticas(replica) : new LinkedHashMap<String, Object>();
+    }
+
+    /**
+     * Retorna a configuração do cache de statements do driver. Acertos e faltas não são informados: nem o
+     * ojdbc nem o H2 expõem esses contadores, e contá-los exigiria envolver cada conexão do pool. No Oracle
+     * o efeito aparece nas estatísticas parse count (total) e session cursor cache hits (V$SESSTAT).
+     *
+     * @return mapa com a propriedade do driver e o tamanho do cache por conexão.
+     */
+    public static Map<String, Object> getEstatisticasCacheStatements() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("propriedadeDriver", propriedadeCacheStatements(URL));
+        estatisticas.put("tamanhoPorConexao", CACHE_STATEMENTS);
+        return estatisticas;
+    }
+
+    private static Map<String, Object> estatisticas(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        if (pool != null) {
+            estatisticas.put("ativas", pool.getActiveConnections());
+            estatisticas.put("ociosas", pool.getIdleConnections());
+            estatisticas.put("total", pool.getTotalConnections());
+            estatisticas.put("aguardando", pool.getThreadsAwaitingConnection());
+        }
+        return estatisticas;
+    }
 }
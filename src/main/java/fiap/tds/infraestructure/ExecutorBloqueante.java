@@ -0,0 +1,176 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pool para o trabalho bloqueante dos recursos assíncronos, liberando as threads do servidor HTTP.
+ *
+ * Há um pool para chamadas só ao banco ({@link #BANCO}) e outro para operações que também consultam
+ * os serviços externos ({@link #EXTERNO}), para que validações lentas não ocupem as threads das leituras.
+ * Cada um tem threads, fila e tempo limite próprios (async.&lt;nome&gt;.threads, .fila e .timeout-ms);
+ * com a fila cheia a tarefa é recusada.
+ *
+ * Uma requisição que excedeu o tempo limite já foi respondida com 503 e o cliente pode repeti-la. Por isso
+ * a tarefa dela é descartada se ainda estiver na fila e, se já estiver rodando, não grava mais nada:
+ * {@link #verificarAbandono()} é chamado ao pedir uma conexão de escrita e antes do commit da
+ * {@link UnitOfWork}, evitando que a repetição de um POST crie um relatório duplicado.
+ */
+public final class ExecutorBloqueante {
+    /** Buscas, listagens, remoções e demais operações que só usam o banco. */
+    public static final ExecutorBloqueante BANCO = new ExecutorBloqueante("banco", 20, 200, 5000);
+    /** Inclusões e atualizações que validam email e CEP nos serviços externos. */
+    public static final ExecutorBloqueante EXTERNO = new ExecutorBloqueante("externo", 64, 500, 15000);
+    private static final Logger logger = LogManager.getLogger(ExecutorBloqueante.class);
+
+    private final String nome;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final AtomicLong recusadas = new AtomicLong();
+    private final AtomicLong tempoEsgotado = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    // Indica, na thread que atende a tarefa, se a requisição já foi respondida por tempo esgotado
+    private static final ThreadLocal<BooleanSupplier> ABANDONADA = new ThreadLocal<>();
+
+    private ExecutorBloqueante(String nome, int threadsPadrao, int filaPadrao, long timeoutPadraoMs) {
+        this.nome = nome;
+        int threads = Math.max(1, AppConfig.getInt("async." + nome + ".threads", threadsPadrao));
+        int fila = Math.max(1, AppConfig.getInt("async." + nome + ".fila", filaPadrao));
+        this.timeoutMs = AppConfig.getLong("async." + nome + ".timeout-ms", timeoutPadraoMs);
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "async-" + nome + "-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Executa a tarefa no pool. A marca de escrita do read-your-writes é limpa ao final,
+     * porque as threads do pool atendem requisições diferentes.
+     *
+     * @param tarefa a tarefa.
+     * @throws RejectedExecutionException se a fila estiver cheia.
+     */
+    public void executar(Runnable tarefa) {
+        executar(tarefa, () -> false);
+    }
+
+    /**
+     * Executa a tarefa no pool, a menos que ela já tenha sido abandonada quando sair da fila.
+     *
+     * @param tarefa a tarefa.
+     * @param abandonada indica se a requisição já foi respondida sem esperar a tarefa.
+     * @throws RejectedExecutionException se a fila estiver cheia.
+     */
+    public void executar(Runnable tarefa, BooleanSupplier abandonada) {
+        try {
+            executor.execute(() -> {
+                if (abandonada.getAsBoolean()) {
+                    descartadas.incrementAndGet();
+                    return;
+                }
+                ABANDONADA.set(abandonada);
+                try {
+                    tarefa.run();
+                } finally {
+                    ABANDONADA.remove();
+                    DatabaseConnection.limparEscritas();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            recusadas.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Interrompe a operação da thread atual se a requisição que ela atende já foi respondida por
+     * tempo esgotado. Fora dos pools não faz nada.
+     *
+     * @throws DatabaseException se a requisição foi abandonada.
+     */
+    public static void verificarAbandono() throws DatabaseException {
+        BooleanSupplier abandonada = ABANDONADA.get();
+        if (abandonada != null && abandonada.getAsBoolean()) {
+            throw new DatabaseException("Tempo limite da requisição excedido; a operação não foi gravada.");
+        }
+    }
+
+    /**
+     * Registra uma resposta que excedeu o tempo limite.
+     */
+    public void registrarTempoEsgotado() {
+        tempoEsgotado.incrementAndGet();
+    }
+
+    /**
+     * Retorna o tempo limite das requisições atendidas por este pool.
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Encerra os dois pools, esperando as tarefas já aceitas; novas tarefas passam a ser recusadas.
+     *
+     * @param timeoutMs o tempo máximo de espera, somando os dois pools.
+     * @return true se todas as tarefas terminaram.
+     * @throws InterruptedException se a espera for interrompida.
+     */
+    public static boolean encerrar(long timeoutMs) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        BANCO.executor.shutdown();
+        EXTERNO.executor.shutdown();
+        boolean concluido = true;
+        for (ExecutorBloqueante pool : new ExecutorBloqueante[]{BANCO, EXTERNO}) {
+            if (!pool.executor.awaitTermination(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("{} tarefas do pool async-{} não terminaram no prazo",
+                        pool.executor.shutdownNow().size() + pool.executor.getActiveCount(), pool.nome);
+                concluido = false;
+            }
+        }
+        return concluido;
+    }
+
+    /**
+     * Retorna as métricas dos pools.
+     *
+     * @return mapa com threads, ativas, fila, concluídas, recusadas, respostas com tempo esgotado e tarefas
+     *         descartadas por já terem sido respondidas, de cada pool.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        for (ExecutorBloqueante pool : new ExecutorBloqueante[]{BANCO, EXTERNO}) {
+            Map<String, Object> dados = new LinkedHashMap<>();
+            dados.put("threads", pool.executor.getMaximumPoolSize());
+            dados.put("ativas", pool.executor.getActiveCount());
+            dados.put("fila", pool.executor.getQueue().size());
+            dados.put("concluidas", pool.executor.getCompletedTaskCount());
+            dados.put("recusadas", pool.recusadas.get());
+            dados.put("tempoEsgotado", pool.tempoEsgotado.get());
+            dados.put("descartadas", pool.descartadas.get());
+            dados.put("timeoutMs", pool.timeoutMs);
+            estatisticas.put(pool.nome, dados);
+        }
+        return estatisticas;
+    }
+}
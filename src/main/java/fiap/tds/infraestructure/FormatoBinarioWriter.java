@@ -0,0 +1,76 @@
+package fiap.tds.infraestructure;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Escreve as respostas em CBOR (application/cbor) ou Smile (application/x-jackson-smile), formatos binários
+ * do mesmo modelo de dados do JSON, para os clientes que pedem um deles no Accept.
+ *
+ * Os nomes dos campos são os mesmos do JSON e, como nele, campos nulos são omitidos; datas (Timestamp)
+ * vão como milissegundos desde a época.
+ * Os recursos que aceitam esses formatos os declaram no @Produces, depois do JSON, que continua sendo o
+ * padrão para Accept ausente ou *&#47;*.
+ */
+@Provider
+@Produces({FormatoBinarioWriter.APPLICATION_CBOR, FormatoBinarioWriter.APPLICATION_SMILE})
+public class FormatoBinarioWriter implements MessageBodyWriter<Object> {
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    private static final MediaType CBOR = MediaType.valueOf(APPLICATION_CBOR);
+    private static final MediaType SMILE = MediaType.valueOf(APPLICATION_SMILE);
+
+    // Mappers são thread-safe depois de configurados; o stream de saída é fechado pelo Jersey
+    private static final ObjectMapper CBOR_MAPPER = CBORMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+    private static final ObjectMapper SMILE_MAPPER = SmileMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .serializationInclusion(JsonInclude.Include.NON_NULL)
+            .build();
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        // Mensagens de erro em texto continuam com o writer de String
+        return type != String.class && mapper(mediaType) != null;
+    }
+
+    @Override
+    public void writeTo(Object entidade, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        mapper(mediaType).writeValue(entityStream, entidade);
+    }
+
+    private static ObjectMapper mapper(MediaType mediaType) {
+        if (mesmoTipo(CBOR, mediaType)) {
+            return CBOR_MAPPER;
+        }
+        if (mesmoTipo(SMILE, mediaType)) {
+            return SMILE_MAPPER;
+        }
+        return null;
+    }
+
+    private static boolean mesmoTipo(MediaType esperado, MediaType mediaType) {
+        return mediaType != null
+                && esperado.getType().equalsIgnoreCase(mediaType.getType())
+                && esperado.getSubtype().equalsIgnoreCase(mediaType.getSubtype());
+    }
+}
@@ -0,0 +1,196 @@
+package fiap.tds.infraestructure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente HTTP compartilhado pelas validações externas (ViaCEP e verificador de email).
+ *
+ * As conexões ficam em um pool com limite total e por rota e são reaproveitadas (keep-alive),
+ * evitando um novo handshake TLS a cada chamada. O cliente não deve ser fechado por quem o usa;
+ * a resposta precisa ter a entidade consumida (EntityUtils.toString) para a conexão voltar ao pool.
+ */
+public final class HttpClientProvider {
+    private static final int MAX_TOTAL = AppConfig.getInt("http.pool.max-total", 50);
+    private static final int MAX_POR_ROTA = AppConfig.getInt("http.pool.max-per-route", 20);
+    private static final int CONNECT_TIMEOUT_MS = AppConfig.getInt("http.connect-timeout-ms", 2000);
+    private static final int READ_TIMEOUT_MS = AppConfig.getInt("http.read-timeout-ms", 5000);
+    private static final int POOL_TIMEOUT_MS = AppConfig.getInt("http.pool.request-timeout-ms", 1000);
+    private static final long KEEP_ALIVE_MS = AppConfig.getLong("http.keep-alive-ms", 30000);
+    private static final int VALIDAR_APOS_INATIVIDADE_MS = AppConfig.getInt("http.pool.validate-after-inactivity-ms", 2000);
+    private static final Logger logger = LogManager.getLogger(HttpClientProvider.class);
+
+    // ObjectMapper é thread-safe depois de configurado; o ObjectReader é imutável
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader JSON_READER = MAPPER.readerFor(JsonNode.class);
+    // Evita criar o cliente só para fechá-lo no desligamento
+    private static volatile boolean clienteCriado;
+
+    private HttpClientProvider() {
+    }
+
+    /**
+     * Inicializa o pool e o cliente apenas no primeiro uso.
+     */
+    private static class ClientHolder {
+        private static final PoolingHttpClientConnectionManager CONNECTION_MANAGER = criarConnectionManager();
+        private static final CloseableHttpClient CLIENT = criarClient(CONNECTION_MANAGER);
+        // Aborta as requisições que passam do tempo total permitido
+        private static final ScheduledThreadPoolExecutor TEMPORIZADOR = criarTemporizador();
+    }
+
+    private static ScheduledThreadPoolExecutor criarTemporizador() {
+        ScheduledThreadPoolExecutor temporizador = new ScheduledThreadPoolExecutor(1, tarefa -> {
+            Thread thread = new Thread(tarefa, "http-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        temporizador.setRemoveOnCancelPolicy(true);
+        return temporizador;
+    }
+
+    private static PoolingHttpClientConnectionManager criarConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_TOTAL);
+        connectionManager.setDefaultMaxPerRoute(MAX_POR_ROTA);
+        // Conexões paradas há mais que isso são verificadas antes de serem reaproveitadas
+        connectionManager.setValidateAfterInactivity(VALIDAR_APOS_INATIVIDADE_MS);
+        return connectionManager;
+    }
+
+    private static CloseableHttpClient criarClient(PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT_MS)
+                .setSocketTimeout(READ_TIMEOUT_MS)
+                .setConnectionRequestTimeout(POOL_TIMEOUT_MS)
+                .build();
+
+        // Usa o Keep-Alive enviado pelo servidor; sem ele, mantém a conexão por http.keep-alive-ms
+        ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+            long duracao = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duracao > 0 ? duracao : KEEP_ALIVE_MS;
+        };
+
+        logger.info("Criando cliente HTTP compartilhado (max={}, porRota={}, connect={}ms, read={}ms)",
+                MAX_TOTAL, MAX_POR_ROTA, CONNECT_TIMEOUT_MS, READ_TIMEOUT_MS);
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAlive)
+                .evictExpiredConnections()
+                .evictIdleConnections(KEEP_ALIVE_MS, TimeUnit.MILLISECONDS)
+                .build();
+        // Só depois do build: se ele falhar, fechar() não deve tentar usar um cliente que não existe
+        clienteCriado = true;
+        return client;
+    }
+
+    /**
+     * Retorna o cliente HTTP compartilhado.
+     *
+     * @return o cliente, que não deve ser fechado por quem o usa.
+     */
+    public static CloseableHttpClient getClient() {
+        return ClientHolder.CLIENT;
+    }
+
+    /**
+     * Faz um GET e retorna o corpo da resposta, abortando a requisição se ela passar de timeoutMs no total.
+     *
+     * Os timeouts de conexão e de leitura valem para cada etapa; este limite vale para a chamada inteira,
+     * inclusive a espera por uma conexão do pool.
+     *
+     * @param url a URL a ser chamada.
+     * @param timeoutMs o tempo máximo da chamada.
+     * @return o corpo da resposta.
+     * @throws IOException se a resposta não tiver status 2xx, ou se a chamada falhar ou for abortada pelo
+     *         tempo limite ou por um {@link Cancelamento}.
+     */
+    public static String get(String url, long timeoutMs) throws IOException {
+        HttpGet request = new HttpGet(url);
+        // Quem espera a validação pode abortar a requisição antes do tempo limite (ver Cancelamento)
+        Cancelamento.acompanhar(request);
+        ScheduledFuture<?> abortar = ClientHolder.TEMPORIZADOR.schedule(request::abort, timeoutMs, TimeUnit.MILLISECONDS);
+        try (CloseableHttpResponse response = ClientHolder.CLIENT.execute(request)) {
+            String corpo = EntityUtils.toString(response.getEntity());
+            int status = response.getStatusLine().getStatusCode();
+            if (status < 200 || status >= 300) {
+                // O corpo já foi consumido, então a conexão volta ao pool; a resposta de erro não é um resultado
+                throw new IOException("Status " + status + " de " + request.getURI().getHost());
+            }
+            return corpo;
+        } catch (IOException e) {
+            if (request.isAborted() && Cancelamento.atualCancelado()) {
+                throw new IOException("Chamada a " + request.getURI().getHost() + " cancelada", e);
+            }
+            if (request.isAborted()) {
+                throw new IOException("Tempo limite de " + timeoutMs + "ms excedido em " + request.getURI().getHost(), e);
+            }
+            throw e;
+        } finally {
+            abortar.cancel(false);
+            Cancelamento.liberar();
+        }
+    }
+
+    /**
+     * Converte um JSON em árvore usando o leitor compartilhado.
+     *
+     * @param json o conteúdo JSON.
+     * @return a árvore do JSON.
+     * @throws IOException se o conteúdo não for um JSON válido.
+     */
+    public static JsonNode lerJson(String json) throws IOException {
+        return JSON_READER.readTree(json);
+    }
+
+    /**
+     * Retorna o estado atual do pool de conexões HTTP.
+     *
+     * @return mapa com conexões em uso, livres, requisições aguardando e o máximo.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        PoolStats stats = ClientHolder.CONNECTION_MANAGER.getTotalStats();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("emUso", stats.getLeased());
+        estatisticas.put("livres", stats.getAvailable());
+        estatisticas.put("aguardando", stats.getPending());
+        estatisticas.put("maximo", stats.getMax());
+        return estatisticas;
+    }
+
+    /**
+     * Fecha o cliente e as conexões do pool, se o cliente tiver sido criado.
+     */
+    public static void fechar() {
+        if (!clienteCriado) {
+            return;
+        }
+        ClientHolder.TEMPORIZADOR.shutdownNow();
+        try {
+            ClientHolder.CLIENT.close();
+        } catch (IOException e) {
+            logger.error("Erro ao fechar o cliente HTTP: ", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package fiap.tds.infraestructure;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+
+/**
+ * Filtro que delimita o read-your-writes à requisição atual.
+ *
+ * As threads do servidor são reaproveitadas, então a marca de escrita de
+ * {@link DatabaseConnection} é limpa na entrada e na saída de cada requisição.
+ */
+@Provider
+public class ReadYourWritesFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        DatabaseConnection.limparEscritas();
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
+        DatabaseConnection.limparEscritas();
+    }
+}
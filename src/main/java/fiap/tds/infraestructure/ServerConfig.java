@@ -0,0 +1,140 @@
+package fiap.tds.infraestructure;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.grizzly.http.KeepAlive;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+
+/**
+ * Configuração do servidor HTTP (Grizzly), lida de {@link AppConfig} com as chaves servidor.*.
+ *
+ * Endereço e porta formam a URI base; as demais chaves ajustam o transporte de cada listener antes de o
+ * servidor subir: threads de seletor e de worker, keep-alive, buffers de leitura e escrita, tamanho máximo
+ * do cabeçalho e limite da fila de requisições. Valores 0 (ou -1 na fila) mantêm o padrão do Grizzly.
+ * As chaves servidor.desligamento.* definem os prazos do desligamento gracioso.
+ */
+public final class ServerConfig {
+    private static final Logger logger = LogManager.getLogger(ServerConfig.class);
+
+    private final String host;
+    private final int porta;
+    private final int threadsSeletor;
+    private final int threadsWorker;
+    private final int filaMaxima;
+    private final int keepAliveSegundos;
+    private final int keepAliveMaxRequisicoes;
+    private final int bufferLeitura;
+    private final int bufferEscrita;
+    private final int cabecalhoMaximo;
+    private final boolean threadsVirtuais;
+    private final int drenagemSegundos;
+    private final int prazoFilasSegundos;
+
+    private ServerConfig() {
+        this.host = AppConfig.getString("servidor.host", "localhost");
+        this.porta = AppConfig.getInt("servidor.porta", 8080);
+        this.threadsSeletor = AppConfig.getInt("servidor.threads-seletor", 0);
+        this.threadsWorker = AppConfig.getInt("servidor.threads-worker", 0);
+        this.filaMaxima = AppConfig.getInt("servidor.fila-max", -1);
+        this.keepAliveSegundos = AppConfig.getInt("servidor.keep-alive.timeout-s", 30);
+        this.keepAliveMaxRequisicoes = AppConfig.getInt("servidor.keep-alive.max-requisicoes", 256);
+        this.bufferLeitura = AppConfig.getInt("servidor.buffer.leitura-bytes", 0);
+        this.bufferEscrita = AppConfig.getInt("servidor.buffer.escrita-bytes", 0);
+        this.cabecalhoMaximo = AppConfig.getInt("servidor.cabecalho.max-bytes", 8192);
+        this.threadsVirtuais = AppConfig.getBoolean("servidor.threads-virtuais", false);
+        this.drenagemSegundos = Math.max(0, AppConfig.getInt("servidor.desligamento.drenagem-s", 30));
+        this.prazoFilasSegundos = Math.max(0, AppConfig.getInt("servidor.desligamento.filas-s", 30));
+    }
+
+    /**
+     * Lê a configuração do servidor.
+     */
+    public static ServerConfig carregar() {
+        return new ServerConfig();
+    }
+
+    /**
+     * Retorna a URI base em que o servidor escuta, ex.: http://localhost:8080/.
+     */
+    public String getBaseUri() {
+        return "http://" + host + ":" + porta + "/";
+    }
+
+    /**
+     * Indica se as requisições devem ser atendidas em threads virtuais (servidor.threads-virtuais).
+     */
+    public boolean isThreadsVirtuais() {
+        return threadsVirtuais;
+    }
+
+    /**
+     * Retorna quanto tempo o desligamento espera as requisições em andamento terminarem, depois de parar
+     * de aceitar conexões (servidor.desligamento.drenagem-s).
+     */
+    public int getDrenagemSegundos() {
+        return drenagemSegundos;
+    }
+
+    /**
+     * Retorna quanto tempo o desligamento espera as filas em segundo plano (validações assíncronas e pools
+     * dos recursos) esvaziarem, depois da drenagem (servidor.desligamento.filas-s).
+     */
+    public int getPrazoFilasSegundos() {
+        return prazoFilasSegundos;
+    }
+
+    /**
+     * Aplica a configuração aos listeners de um servidor que ainda não foi iniciado.
+     *
+     * @param server o servidor criado com start = false.
+     */
+    public void aplicar(HttpServer server) {
+        for (NetworkListener listener : server.getListeners()) {
+            TCPNIOTransport transport = listener.getTransport();
+            if (threadsSeletor > 0) {
+                transport.setSelectorRunnersCount(threadsSeletor);
+            }
+            if (bufferLeitura > 0) {
+                transport.setReadBufferSize(bufferLeitura);
+            }
+            if (bufferEscrita > 0) {
+                transport.setWriteBufferSize(bufferEscrita);
+            }
+            if (threadsWorker > 0 || filaMaxima != -1) {
+                ThreadPoolConfig workers = transport.getWorkerThreadPoolConfig() != null
+                        ? transport.getWorkerThreadPoolConfig().copy()
+                        : ThreadPoolConfig.defaultConfig();
+                if (threadsWorker > 0) {
+                    workers.setCorePoolSize(threadsWorker).setMaxPoolSize(threadsWorker);
+                }
+                workers.setQueueLimit(filaMaxima);
+                transport.setWorkerThreadPoolConfig(workers);
+            }
+
+            KeepAlive keepAlive = listener.getKeepAlive();
+            keepAlive.setIdleTimeoutInSeconds(keepAliveSegundos);
+            keepAlive.setMaxRequestsCount(keepAliveMaxRequisicoes);
+            if (cabecalhoMaximo > 0) {
+                listener.setMaxHttpHeaderSize(cabecalhoMaximo);
+            }
+        }
+        logger.info("Servidor em {}: {}", getBaseUri(), this);
+    }
+
+    @Override
+    public String toString() {
+        return "threadsSeletor=" + padrao(threadsSeletor) + ", threadsWorker=" + padrao(threadsWorker)
+                + ", filaMax=" + (filaMaxima < 0 ? "ilimitada" : filaMaxima)
+                + ", keepAlive=" + keepAliveSegundos + "s/" + keepAliveMaxRequisicoes + " requisições"
+                + ", bufferLeitura=" + padrao(bufferLeitura) + ", bufferEscrita=" + padrao(bufferEscrita)
+                + ", cabecalhoMax=" + padrao(cabecalhoMaximo) + ", threadsVirtuais=" + threadsVirtuais
+                + ", desligamento=" + drenagemSegundos + "s drenagem/" + prazoFilasSegundos + "s filas";
+    }
+
+    private static String padrao(int valor) {
+        return valor > 0 ? String.valueOf(valor) : "padrão";
+    }
+}
@@ -0,0 +1,107 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Junta chamadas simultâneas com a mesma chave em uma única execução.
+ *
+ * A primeira thread que pede uma chave executa a chamada; as que chegam enquanto ela está em andamento
+ * esperam e recebem o mesmo resultado (ou o mesmo erro). Chaves diferentes não esperam umas pelas outras.
+ * Nada fica guardado depois que a chamada termina.
+ *
+ * @param <K> o tipo da chave.
+ * @param <V> o tipo do resultado.
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final AtomicLong compartilhadas = new AtomicLong();
+
+    /**
+     * Chamada executada uma única vez por chave em andamento.
+     *
+     * @param <V> o tipo do resultado.
+     */
+    @FunctionalInterface
+    public interface Chamada<V> {
+        V executar() throws DatabaseException;
+    }
+
+    /**
+     * Executa a chamada, ou aguarda a que já está em andamento para a mesma chave.
+     *
+     * @param chave a chave da chamada.
+     * @param chamada a chamada a ser executada se não houver outra em andamento.
+     * @return o resultado da chamada.
+     * @throws DatabaseException o erro da chamada, para quem executou e para quem aguardou.
+     */
+    public V executar(K chave, Chamada<V> chamada) throws DatabaseException {
+        CompletableFuture<V> voo = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, voo);
+        if (existente != null) {
+            compartilhadas.incrementAndGet();
+            try {
+                return aguardar(existente);
+            } catch (CancellationException e) {
+                // Quem executava a chamada desistiu dela (Cancelamento); esta thread faz a sua
+                return executar(chave, chamada);
+            }
+        }
+
+        try {
+            V resultado = chamada.executar();
+            voo.complete(resultado);
+            return resultado;
+        } catch (DatabaseException | RuntimeException | Error e) {
+            if (Cancelamento.atualCancelado()) {
+                voo.cancel(false);
+            } else {
+                voo.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            emAndamento.remove(chave, voo);
+        }
+    }
+
+    private V aguardar(CompletableFuture<V> voo) throws DatabaseException {
+        try {
+            return voo.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof DatabaseException) {
+                throw (DatabaseException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new DatabaseException(causa.getMessage(), causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Espera pela chamada em andamento interrompida.", e);
+        }
+    }
+
+    /**
+     * Retorna quantas chamadas foram atendidas pelo resultado de outra em andamento.
+     */
+    public long getCompartilhadas() {
+        return compartilhadas.get();
+    }
+
+    /**
+     * Retorna quantas chaves têm uma chamada em andamento agora.
+     */
+    public int getEmAndamento() {
+        return emAndamento.size();
+    }
+}
@@ -0,0 +1,114 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unidade de trabalho que vincula uma única conexão à thread atual durante uma operação de serviço.
+ *
+ * Enquanto a operação roda, {@link DatabaseConnection#getConnection()} devolve essa mesma conexão
+ * para todos os repositórios, e o commit acontece uma única vez no final (ou rollback em caso de erro,
+ * ou se a requisição já tiver sido respondida por tempo esgotado).
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<Vinculo> VINCULO = new ThreadLocal<>();
+    private static final Logger logger = LogManager.getLogger(UnitOfWork.class);
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Operação executada dentro da unidade de trabalho.
+     *
+     * @param <T> o tipo do resultado.
+     */
+    @FunctionalInterface
+    public interface Operacao<T> {
+        T executar() throws DatabaseException;
+    }
+
+    /**
+     * Executa a operação em uma única transação. Se já houver uma unidade de trabalho ativa
+     * na thread, a operação participa dela.
+     *
+     * @param operacao a operação a ser executada.
+     * @param <T> o tipo do resultado.
+     * @return o resultado da operação.
+     * @throws DatabaseException se a operação falhar ou o commit não puder ser feito.
+     */
+    public static <T> T executar(Operacao<T> operacao) throws DatabaseException {
+        if (VINCULO.get() != null) {
+            return operacao.executar();
+        }
+
+        Connection conexao = DatabaseConnection.getConnection();
+        try {
+            conexao.setAutoCommit(false);
+            VINCULO.set(new Vinculo(conexao));
+            T resultado = operacao.executar();
+            ExecutorBloqueante.verificarAbandono();
+            conexao.commit();
+            return resultado;
+        } catch (DatabaseException | RuntimeException | Error e) {
+            rollback(conexao);
+            throw e;
+        } catch (SQLException e) {
+            rollback(conexao);
+            throw new DatabaseException("Erro ao confirmar a transação: " + e.getMessage(), e);
+        } finally {
+            VINCULO.remove();
+            try {
+                conexao.setAutoCommit(true);
+                conexao.close();
+            } catch (SQLException e) {
+                logger.error("Erro ao devolver a conexão da transação: ", e);
+            }
+        }
+    }
+
+    /**
+     * Retorna a conexão vinculada à thread atual, cujo close é ignorado, ou null se não houver
+     * unidade de trabalho ativa.
+     */
+    static Connection conexaoVinculada() {
+        Vinculo vinculo = VINCULO.get();
+        return vinculo != null ? vinculo.visao : null;
+    }
+
+    private static void rollback(Connection conexao) {
+        try {
+            conexao.rollback();
+        } catch (SQLException e) {
+            logger.error("Erro ao desfazer a transação: ", e);
+        }
+    }
+
+    /**
+     * Conexão da transação e a visão entregue aos repositórios, que não fecha a conexão.
+     */
+    private static class Vinculo {
+        private final Connection visao;
+
+        Vinculo(Connection conexao) {
+            this.visao = (Connection) Proxy.newProxyInstance(
+                    UnitOfWork.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName())) {
+                            return null;
+                        }
+                        try {
+                            return method.invoke(conexao, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package fiap.tds.models;
+
+import java.util.List;
+
+/**
+ * Classe que representa uma página de resultados obtida por paginação por cursor (keyset).
+ *
+ * @param <T> o tipo dos itens da página.
+ */
+public class Pagina<T> {
+    private List<T> itens;
+    private Integer proximoCursor;
+    private int limite;
+
+    public Pagina() {
+    }
+
+    public Pagina(List<T> itens, Integer proximoCursor, int limite) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.limite = limite;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    /**
+     * Retorna o ID a ser usado como cursor da próxima página, ou null se esta for a última.
+     */
+    public Integer getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(Integer proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public void setLimite(int limite) {
+        this.limite = limite;
+    }
+}
@@ -6,6 +6,11 @@ import java.sql.Timestamp;
  * Classe que representa um relatório feito por um usuário no sistema.
  */
 public class Report {
+    // Status de validação: PENDING enquanto a validação assíncrona não terminou
+    public static final String PENDING = "PENDING";
+    public static final String VALID = "VALID";
+    public static final String REJECTED = "REJECTED";
+
     private int id;
     private int userReportId; // Este é o ID do UserReport associado
     private String nomeCompleto;
@@ -18,6 +23,8 @@ public class Report {
     private double longitude;
     private Timestamp dataHora;
     private String midia; // Alterado para String para armazenar o link da imagem
+    private String status;
+    private String motivoStatus; // Motivo da rejeição quando status é REJECTED
 
     public Report() {
     }
@@ -135,6 +142,22 @@ public class Report {
         this.midia = midia;
     }
 
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMotivoStatus() {
+        return motivoStatus;
+    }
+
+    public void setMotivoStatus(String motivoStatus) {
+        this.motivoStatus = motivoStatus;
+    }
+
     @Override
     public String toString() {
         return "Report{" +
@@ -150,6 +173,7 @@ public class Report {
                 ", longitude=" + longitude +
                 ", dataHora=" + dataHora +
                 ", midia='" + midia + '\'' +
+                ", status='" + status + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,63 @@
+package fiap.tds.models;
+
+/**
+ * Classe que representa o resultado de um item de uma gravação em lote.
+ */
+public class ResultadoItemLote {
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int indice;
+    private String status;
+    private String erro;
+
+    public ResultadoItemLote() {
+    }
+
+    public ResultadoItemLote(int indice, String status, String erro) {
+        this.indice = indice;
+        this.status = status;
+        this.erro = erro;
+    }
+
+    public static ResultadoItemLote criado(int indice) {
+        return new ResultadoItemLote(indice, CREATED, null);
+    }
+
+    public static ResultadoItemLote falha(int indice, String erro) {
+        return new ResultadoItemLote(indice, FAILED, erro);
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoItemLote{" +
+                "indice=" + indice +
+                ", status='" + status + '\'' +
+                ", erro='" + erro + '\'' +
+                '}';
+    }
+}
@@ -13,17 +13,23 @@ import java.util.List;
 
 public class AdministradorRepository {
 
-    public void inserir(Administrador administrador) throws DatabaseException {
+    public int inserir(Administrador administrador) throws DatabaseException {
         String sql = "INSERT INTO tb_administrador (nome_adm, credencial_adm, senha_adm) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id_adm"})) {
             stmt.setString(1, administrador.getNome());
             stmt.setString(2, administrador.getCredencial());
             stmt.setString(3, administrador.getSenha());
             stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao inserir administrador: " + e.getMessage(), e);
         }
+        throw new DatabaseException("Erro ao inserir administrador: ID gerado não foi retornado.");
     }
 
     public void atualizar(Administrador administrador) throws DatabaseException {
@@ -52,18 +58,13 @@ public class AdministradorRepository {
     }
 
     public Administrador buscarPorId(int id) throws DatabaseException {
-        String sql = "SELECT * FROM tb_administrador WHERE id_adm = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        String sql = "SELECT " + AdministradorRowMapper.COLUNAS + " FROM tb_administrador WHERE id_adm = ?";
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Administrador admin = new Administrador();
-                    admin.setId(rs.getInt("id_adm"));
-                    admin.setNome(rs.getString("nome_adm"));
-                    admin.setCredencial(rs.getString("credencial_adm"));
-                    admin.setSenha(rs.getString("senha_adm"));
-                    return admin;
+                    return AdministradorRowMapper.INSTANCE.map(rs);
                 }
             }
         } catch (SQLException e) {
@@ -72,19 +73,17 @@ public class AdministradorRepository {
         return null;
     }
 
-    public List<Administrador> listarTodos() throws DatabaseException {
+    public List<Administrador> listarPagina(int apos, int limite) throws DatabaseException {
         List<Administrador> administradores = new ArrayList<>();
-        String sql = "SELECT * FROM tb_administrador";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Administrador admin = new Administrador();
-                admin.setId(rs.getInt("id_adm"));
-                admin.setNome(rs.getString("nome_adm"));
-                admin.setCredencial(rs.getString("credencial_adm"));
-                admin.setSenha(rs.getString("senha_adm"));
-                administradores.add(admin);
+        String sql = "SELECT " + AdministradorRowMapper.COLUNAS + " FROM tb_administrador WHERE id_adm > ? ORDER BY id_adm FETCH FIRST ? ROWS ONLY";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, apos);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    administradores.add(AdministradorRowMapper.INSTANCE.map(rs));
+                }
             }
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao listar administradores: " + e.getMessage(), e);
@@ -92,19 +91,37 @@ public class AdministradorRepository {
         return administradores;
     }
 
-    public Administrador buscarPorCredencial(String credencial) throws DatabaseException {
-        String sql = "SELECT * FROM tb_administrador WHERE credencial_adm = ?";
+    /**
+     * Verifica se outro administrador já usa o nome, sem carregar a tabela.
+     *
+     * @param nome o nome procurado.
+     * @param excetoId o ID do próprio administrador, ignorado na busca (0 em uma inclusão).
+     * @return true se houver outro administrador com o nome.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public boolean existeNome(String nome, int excetoId) throws DatabaseException {
+        String sql = "SELECT 1 FROM tb_administrador WHERE nome_adm = ? AND id_adm <> ? FETCH FIRST 1 ROWS ONLY";
+        // No primário: uma réplica atrasada deixaria passar um nome recém-gravado
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, nome);
+            stmt.setInt(2, excetoId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao verificar nome do administrador: " + e.getMessage(), e);
+        }
+    }
+
+    public Administrador buscarPorCredencial(String credencial) throws DatabaseException {
+        String sql = "SELECT " + AdministradorRowMapper.COLUNAS + " FROM tb_administrador WHERE credencial_adm = ?";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, credencial);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Administrador admin = new Administrador();
-                    admin.setId(rs.getInt("id_adm"));
-                    admin.setNome(rs.getString("nome_adm"));
-                    admin.setCredencial(rs.getString("credencial_adm"));
-                    admin.setSenha(rs.getString("senha_adm"));
-                    return admin;
+                    return AdministradorRowMapper.INSTANCE.map(rs);
                 }
             }
         } catch (SQLException e) {
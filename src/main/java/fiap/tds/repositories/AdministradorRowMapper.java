@@ -0,0 +1,29 @@
+package fiap.tds.repositories;
+
+import fiap.tds.models.Administrador;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapeia linhas de tb_administrador para {@link Administrador} por posição.
+ *
+ * As consultas devem selecionar exatamente {@link #COLUNAS}, nesta ordem.
+ */
+public final class AdministradorRowMapper implements RowMapper<Administrador> {
+    public static final String COLUNAS = "id_adm, nome_adm, credencial_adm, senha_adm";
+    public static final AdministradorRowMapper INSTANCE = new AdministradorRowMapper();
+
+    private AdministradorRowMapper() {
+    }
+
+    @Override
+    public Administrador map(ResultSet rs) throws SQLException {
+        Administrador admin = new Administrador();
+        admin.setId(rs.getInt(1));
+        admin.setNome(rs.getString(2));
+        admin.setCredencial(rs.getString(3));
+        admin.setSenha(rs.getString(4));
+        return admin;
+    }
+}
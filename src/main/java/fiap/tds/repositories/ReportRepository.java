@@ -4,6 +4,7 @@ import fiap.tds.exception.DatabaseException;
 import fiap.tds.infraestructure.DatabaseConnection;
 import fiap.tds.models.Report;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -13,20 +14,26 @@ import java.util.List;
 
 /**
  * Classe que representa o repositório para operações de CRUD da entidade Report.
+ *
+ * As consultas públicas (busca por ID, listagem e exportação) só retornam relatórios VALID: os PENDING
+ * ainda não foram validados e os REJECTED foram recusados. O status dos demais é lido por {@link #buscarStatus}.
  */
 
 public class ReportRepository {
+    // Coberto pelo índice (status, id), que mantém a paginação por cursor em uma varredura de intervalo
+    private static final String SOMENTE_VALIDOS = "status = '" + Report.VALID + "'";
 
     /**
      * Insere um novo relatório no banco de dados.
      *
      * @param report o relatório a ser inserido.
+     * @return o ID gerado para o relatório.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
-    public void inserir(Report report) throws DatabaseException {
-        String sql = "INSERT INTO tb_report (user_report_id, tipo, descricao, latitude, longitude, data_hora, midia) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    public int inserir(Report report) throws DatabaseException {
+        String sql = "INSERT INTO tb_report (user_report_id, tipo, descricao, latitude, longitude, data_hora, midia, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id"})) {
             stmt.setInt(1, report.getUserReportId());
             stmt.setString(2, report.getTipo());
             stmt.setString(3, report.getDescricao());
@@ -34,20 +41,151 @@ public class ReportRepository {
             stmt.setDouble(5, report.getLongitude());
             stmt.setTimestamp(6, report.getDataHora());
             stmt.setString(7, report.getMidia());
+            stmt.setString(8, statusOuPadrao(report));
             stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao inserir relatório: " + e.getMessage(), e);
         }
+        throw new DatabaseException("Erro ao inserir relatório: ID gerado não foi retornado.");
+    }
+
+    /**
+     * Insere vários relatórios no banco de dados com um único executeBatch.
+     *
+     * @param reports os relatórios a serem inseridos.
+     * @return o número de linhas afetadas por relatório, na ordem recebida.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public int[] inserirEmLote(List<Report> reports) throws DatabaseException {
+        String sql = "INSERT INTO tb_report (user_report_id, tipo, descricao, latitude, longitude, data_hora, midia, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Report report : reports) {
+                stmt.setInt(1, report.getUserReportId());
+                stmt.setString(2, report.getTipo());
+                stmt.setString(3, report.getDescricao());
+                stmt.setDouble(4, report.getLatitude());
+                stmt.setDouble(5, report.getLongitude());
+                stmt.setTimestamp(6, report.getDataHora());
+                stmt.setString(7, report.getMidia());
+                stmt.setString(8, statusOuPadrao(report));
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao inserir relatórios em lote: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * O status é definido pelo serviço (VALID ou PENDING), nunca pelo corpo da requisição; sem status
+     * (DataSeeder, por exemplo), o relatório é gravado como VALID.
+     */
+    private static String statusOuPadrao(Report report) {
+        return report.getStatus() != null ? report.getStatus() : Report.VALID;
+    }
+
+    /**
+     * Grava o resultado da validação em segundo plano de um relatório que ainda está PENDING.
+     *
+     * Se o relatório foi atualizado (PUT, validado na hora) ou removido enquanto esperava, o resultado,
+     * que é dos dados antigos, é descartado.
+     *
+     * @param id o ID do relatório.
+     * @param status o novo status (VALID ou REJECTED).
+     * @param motivo o motivo da rejeição, ou null.
+     * @return true se o status foi gravado; false se o relatório não estava mais PENDING.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public boolean atualizarStatus(int id, String status, String motivo) throws DatabaseException {
+        String sql = "UPDATE tb_report SET status = ?, motivo_status = ? WHERE id = ? AND status = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, status);
+            stmt.setString(2, motivo);
+            stmt.setInt(3, id);
+            stmt.setString(4, Report.PENDING);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao atualizar status do relatório: " + e.getMessage(), e);
+        }
     }
 
     /**
-     * Atualiza um relatório existente no banco de dados.
+     * Busca o status de validação de um relatório.
+     *
+     * Lê do primário, para que quem acabou de receber o 202 não veja o relatório como inexistente
+     * ou um status atrasado por causa do atraso de replicação.
+     *
+     * @param id o ID do relatório.
+     * @return o relatório só com ID, status e motivo, ou null se não for encontrado.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public Report buscarStatus(int id) throws DatabaseException {
+        String sql = "SELECT status, motivo_status FROM tb_report WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Report report = new Report();
+                    report.setId(id);
+                    report.setStatus(rs.getString(1));
+                    report.setMotivoStatus(rs.getString(2));
+                    return report;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao buscar status do relatório: " + e.getMessage(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Lista os relatórios pendentes de validação, com o email e o CEP do usuário associado.
+     *
+     * Lê do primário, porque a réplica pode ainda não ter os relatórios recém-aceitos.
+     *
+     * @return os relatórios pendentes, do mais antigo para o mais novo.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public List<Report> listarPendentes() throws DatabaseException {
+        String sql = "SELECT r.id, u.email_user, u.cep_user FROM tb_report r "
+                + "JOIN tb_user_report u ON u.id_user = r.user_report_id WHERE r.status = ? ORDER BY r.id";
+        List<Report> reports = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, Report.PENDING);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Report report = new Report();
+                    report.setId(rs.getInt(1));
+                    report.setEmail(rs.getString(2));
+                    report.setCep(rs.getString(3));
+                    report.setStatus(Report.PENDING);
+                    reports.add(report);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao listar relatórios pendentes: " + e.getMessage(), e);
+        }
+        return reports;
+    }
+
+    /**
+     * Atualiza um relatório existente no banco de dados. A atualização é validada antes da gravação,
+     * então o relatório passa a VALID, inclusive se estava PENDING ou REJECTED.
      *
      * @param report o relatório a ser atualizado.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
     public void atualizar(Report report) throws DatabaseException {
-        String sql = "UPDATE tb_report SET user_report_id = ?, tipo = ?, descricao = ?, latitude = ?, longitude = ?, data_hora = ?, midia = ? WHERE id = ?";
+        String sql = "UPDATE tb_report SET user_report_id = ?, tipo = ?, descricao = ?, latitude = ?, longitude = ?, data_hora = ?, midia = ?, status = ?, motivo_status = NULL WHERE id = ?";
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, report.getUserReportId());
@@ -57,7 +195,8 @@ public class ReportRepository {
             stmt.setDouble(5, report.getLongitude());
             stmt.setTimestamp(6, report.getDataHora());
             stmt.setString(7, report.getMidia());
-            stmt.setInt(8, report.getId());
+            stmt.setString(8, Report.VALID);
+            stmt.setInt(9, report.getId());
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao atualizar relatório: " + e.getMessage(), e);
@@ -82,29 +221,20 @@ public class ReportRepository {
     }
 
     /**
-     * Busca um relatório no banco de dados pelo seu ID.
+     * Busca um relatório validado no banco de dados pelo seu ID.
      *
      * @param id o ID do relatório.
-     * @return o relatório encontrado ou null se não for encontrado.
+     * @return o relatório encontrado ou null se não for encontrado ou ainda não for VALID.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
     public Report buscarPorId(int id) throws DatabaseException {
-        String sql = "SELECT * FROM tb_report WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+        String sql = "SELECT " + ReportRowMapper.COLUNAS + " FROM tb_report WHERE id = ? AND " + SOMENTE_VALIDOS;
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Report report = new Report();
-                    report.setId(rs.getInt("id"));
-                    report.setUserReportId(rs.getInt("user_report_id"));
-                    report.setTipo(rs.getString("tipo"));
-                    report.setDescricao(rs.getString("descricao"));
-                    report.setLatitude(rs.getDouble("latitude"));
-                    report.setLongitude(rs.getDouble("longitude"));
-                    report.setDataHora(rs.getTimestamp("data_hora"));
-                    report.setMidia(rs.getString("midia"));
-                    return report;
+                    return ReportRowMapper.INSTANCE.map(rs);
                 }
             }
         } catch (SQLException e) {
@@ -114,28 +244,48 @@ public class ReportRepository {
     }
 
     /**
-     * Lista todos os relatórios do banco de dados.
+     * Percorre todos os relatórios validados sem carregá-los em memória, entregando cada linha ao handler
+     * assim que ela é lida do ResultSet.
      *
+     * @param fetchSize o número de linhas trazidas do banco por ida e volta.
+     * @param handler quem recebe cada relatório.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     * @throws IOException se o handler falhar.
+     */
+    public void percorrerTodos(int fetchSize, RowHandler<Report> handler) throws DatabaseException, IOException {
+        String sql = "SELECT " + ReportRowMapper.COLUNAS + " FROM tb_report WHERE " + SOMENTE_VALIDOS + " ORDER BY id";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(ReportRowMapper.INSTANCE.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao percorrer relatórios: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lista uma página de relatórios validados ordenados por ID (paginação por cursor).
+     *
+     * @param apos o ID a partir do qual a página começa (exclusivo).
+     * @param limite o número máximo de relatórios retornados.
      * @return uma lista de relatórios.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
-    public List<Report> listarTodos() throws DatabaseException {
+    public List<Report> listarPagina(int apos, int limite) throws DatabaseException {
         List<Report> reports = new ArrayList<>();
-        String sql = "SELECT * FROM tb_report";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                Report report = new Report();
-                report.setId(rs.getInt("id"));
-                report.setUserReportId(rs.getInt("user_report_id"));
-                report.setTipo(rs.getString("tipo"));
-                report.setDescricao(rs.getString("descricao"));
-                report.setLatitude(rs.getDouble("latitude"));
-                report.setLongitude(rs.getDouble("longitude"));
-                report.setDataHora(rs.getTimestamp("data_hora"));
-                report.setMidia(rs.getString("midia"));
-                reports.add(report);
+        String sql = "SELECT " + ReportRowMapper.COLUNAS + " FROM tb_report WHERE " + SOMENTE_VALIDOS + " AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, apos);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reports.add(ReportRowMapper.INSTANCE.map(rs));
+                }
             }
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao listar relatórios: " + e.getMessage(), e);
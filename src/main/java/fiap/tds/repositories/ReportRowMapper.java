@@ -0,0 +1,35 @@
+package fiap.tds.repositories;
+
+import fiap.tds.models.Report;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapeia linhas de tb_report para {@link Report} por posição.
+ *
+ * As consultas devem selecionar exatamente {@link #COLUNAS}, nesta ordem.
+ */
+public final class ReportRowMapper implements RowMapper<Report> {
+    public static final String COLUNAS = "id, user_report_id, tipo, descricao, latitude, longitude, data_hora, midia, status, motivo_status";
+    public static final ReportRowMapper INSTANCE = new ReportRowMapper();
+
+    private ReportRowMapper() {
+    }
+
+    @Override
+    public Report map(ResultSet rs) throws SQLException {
+        Report report = new Report();
+        report.setId(rs.getInt(1));
+        report.setUserReportId(rs.getInt(2));
+        report.setTipo(rs.getString(3));
+        report.setDescricao(rs.getString(4));
+        report.setLatitude(rs.getDouble(5));
+        report.setLongitude(rs.getDouble(6));
+        report.setDataHora(rs.getTimestamp(7));
+        report.setMidia(rs.getString(8));
+        report.setStatus(rs.getString(9));
+        report.setMotivoStatus(rs.getString(10));
+        return report;
+    }
+}
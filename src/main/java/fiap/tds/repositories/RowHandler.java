@@ -0,0 +1,20 @@
+package fiap.tds.repositories;
+
+import java.io.IOException;
+
+/**
+ * Recebe as linhas de uma consulta uma a uma, enquanto o ResultSet é percorrido.
+ *
+ * @param <T> o tipo da entidade mapeada de cada linha.
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+
+    /**
+     * Processa uma linha já mapeada.
+     *
+     * @param item a entidade da linha atual.
+     * @throws IOException se o processamento falhar (ex.: o cliente fechou a conexão).
+     */
+    void handle(T item) throws IOException;
+}
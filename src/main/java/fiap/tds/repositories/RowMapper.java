@@ -0,0 +1,22 @@
+package fiap.tds.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Converte a linha atual de um ResultSet em uma entidade.
+ *
+ * @param <T> o tipo da entidade.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Mapeia a linha atual do ResultSet, sem avançar o cursor.
+     *
+     * @param rs o ResultSet posicionado na linha.
+     * @return a entidade mapeada.
+     * @throws SQLException se ocorrer um erro ao ler as colunas.
+     */
+    T map(ResultSet rs) throws SQLException;
+}
@@ -2,6 +2,7 @@ package fiap.tds.repositories;
 
 import fiap.tds.exception.DatabaseException;
 import fiap.tds.infraestructure.DatabaseConnection;
+import fiap.tds.models.Report;
 import fiap.tds.models.UserReport;
 
 import java.sql.Connection;
@@ -13,27 +14,41 @@ import java.util.List;
 
 /**
  * Classe que representa o repositório para operações de CRUD da entidade UserReport.
+ *
+ * Na ingestão assíncrona o usuário é gravado junto com o relatório PENDING, antes de email e CEP serem
+ * verificados. As consultas públicas escondem os usuários com algum relatório que não é VALID (ainda
+ * pendente ou rejeitado); {@link #buscarPorIdIncluindoPendentes} é usado só nas atualizações.
  */
 public class UserReportRepository {
+    // Usa o índice de tb_report(user_report_id)
+    private static final String SEM_RELATORIO_NAO_VALIDADO = "NOT EXISTS (SELECT 1 FROM tb_report r "
+            + "WHERE r.user_report_id = tb_user_report.id_user AND r.status <> '" + Report.VALID + "')";
 
     /**
      * Insere um novo usuário no banco de dados.
      *
      * @param userReport o usuário a ser inserido.
+     * @return o ID gerado para o usuário.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
-    public void inserir(UserReport userReport) throws DatabaseException {
+    public int inserir(UserReport userReport) throws DatabaseException {
         String sql = "INSERT INTO tb_user_report (nome_completo, email_user, cpf_user, cep_user) VALUES (?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id_user"})) {
             stmt.setString(1, userReport.getNomeCompleto());
             stmt.setString(2, userReport.getEmail());
             stmt.setString(3, userReport.getCpf());
             stmt.setString(4, userReport.getCep());
             stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao inserir usuário: " + e.getMessage(), e);
         }
+        throw new DatabaseException("Erro ao inserir usuário: ID gerado não foi retornado.");
     }
 
     /**
@@ -78,80 +93,60 @@ public class UserReportRepository {
      * Busca um usuário no banco de dados pelo seu ID.
      *
      * @param id o ID do usuário.
-     * @return o usuário encontrado ou null se não for encontrado.
+     * @return o usuário encontrado ou null se não for encontrado ou tiver um relatório não validado.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
     public UserReport buscarPorId(int id) throws DatabaseException {
-        String sql = "SELECT * FROM tb_user_report WHERE id_user = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    UserReport userReport = new UserReport();
-                    userReport.setId(rs.getInt("id_user"));
-                    userReport.setNomeCompleto(rs.getString("nome_completo"));
-                    userReport.setEmail(rs.getString("email_user"));
-                    userReport.setCpf(rs.getString("cpf_user"));
-                    userReport.setCep(rs.getString("cep_user"));
-                    return userReport;
-                }
-            }
-        } catch (SQLException e) {
-            throw new DatabaseException("Erro ao buscar usuário: " + e.getMessage(), e);
-        }
-        return null;
+        return buscarPorId(id, " AND " + SEM_RELATORIO_NAO_VALIDADO);
     }
 
     /**
-     * Busca um usuário no banco de dados pelo seu email.
+     * Busca um usuário pelo seu ID mesmo que tenha relatórios PENDING ou REJECTED, para atualizá-lo.
      *
-     * @param email o email do usuário.
+     * @param id o ID do usuário.
      * @return o usuário encontrado ou null se não for encontrado.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
-    public UserReport buscarPorEmail(String email) throws DatabaseException {
-        String sql = "SELECT * FROM tb_user_report WHERE email_user = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
+    public UserReport buscarPorIdIncluindoPendentes(int id) throws DatabaseException {
+        return buscarPorId(id, "");
+    }
+
+    private UserReport buscarPorId(int id, String filtro) throws DatabaseException {
+        String sql = "SELECT " + UserReportRowMapper.COLUNAS + " FROM tb_user_report WHERE id_user = ?" + filtro;
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, email);
+            stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    UserReport userReport = new UserReport();
-                    userReport.setId(rs.getInt("id_user"));
-                    userReport.setNomeCompleto(rs.getString("nome_completo"));
-                    userReport.setEmail(rs.getString("email_user"));
-                    userReport.setCpf(rs.getString("cpf_user"));
-                    userReport.setCep(rs.getString("cep_user"));
-                    return userReport;
+                    return UserReportRowMapper.INSTANCE.map(rs);
                 }
             }
         } catch (SQLException e) {
-            throw new DatabaseException("Erro ao buscar usuário por email: " + e.getMessage(), e);
+            throw new DatabaseException("Erro ao buscar usuário: " + e.getMessage(), e);
         }
         return null;
     }
 
     /**
-     * Lista todos os usuários do banco de dados.
+     * Lista uma página de usuários ordenados por ID (paginação por cursor).
      *
+     * @param apos o ID a partir do qual a página começa (exclusivo).
+     * @param limite o número máximo de usuários retornados.
      * @return uma lista de usuários.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
-    public List<UserReport> listarTodos() throws DatabaseException {
+    public List<UserReport> listarPagina(int apos, int limite) throws DatabaseException {
         List<UserReport> userReports = new ArrayList<>();
-        String sql = "SELECT * FROM tb_user_report";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            while (rs.next()) {
-                UserReport userReport = new UserReport();
-                userReport.setId(rs.getInt("id_user"));
-                userReport.setNomeCompleto(rs.getString("nome_completo"));
-                userReport.setEmail(rs.getString("email_user"));
-                userReport.setCpf(rs.getString("cpf_user"));
-                userReport.setCep(rs.getString("cep_user"));
-                userReports.add(userReport);
+        String sql = "SELECT " + UserReportRowMapper.COLUNAS + " FROM tb_user_report WHERE id_user > ? AND " + SEM_RELATORIO_NAO_VALIDADO
+                + " ORDER BY id_user FETCH FIRST ? ROWS ONLY";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, apos);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    userReports.add(UserReportRowMapper.INSTANCE.map(rs));
+                }
             }
         } catch (SQLException e) {
             throw new DatabaseException("Erro ao listar usuários: " + e.getMessage(), e);
@@ -0,0 +1,30 @@
+package fiap.tds.repositories;
+
+import fiap.tds.models.UserReport;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Mapeia linhas de tb_user_report para {@link UserReport} por posição.
+ *
+ * As consultas devem selecionar exatamente {@link #COLUNAS}, nesta ordem.
+ */
+public final class UserReportRowMapper implements RowMapper<UserReport> {
+    public static final String COLUNAS = "id_user, nome_completo, email_user, cpf_user, cep_user";
+    public static final UserReportRowMapper INSTANCE = new UserReportRowMapper();
+
+    private UserReportRowMapper() {
+    }
+
+    @Override
+    public UserReport map(ResultSet rs) throws SQLException {
+        UserReport userReport = new UserReport();
+        userReport.setId(rs.getInt(1));
+        userReport.setNomeCompleto(rs.getString(2));
+        userReport.setEmail(rs.getString(3));
+        userReport.setCpf(rs.getString(4));
+        userReport.setCep(rs.getString(5));
+        return userReport;
+    }
+}
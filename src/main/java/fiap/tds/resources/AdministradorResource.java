@@ -1,13 +1,16 @@
 package fiap.tds.resources;
 
 import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.ExecutorBloqueante;
 import fiap.tds.models.Administrador;
 import fiap.tds.service.AdministradorService;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-
-import java.util.List;
+import jakarta.ws.rs.core.UriInfo;
 
 /**
  * Classe de recurso para gerenciar operações relacionadas a Administrador via API REST.
@@ -22,105 +25,122 @@ public class AdministradorResource {
      * Adiciona um novo administrador.
      *
      * @param administrador o administrador a ser adicionado.
-     * @return resposta HTTP com status 201 (Created) ou 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com status 201 (Created) ou 500 (Internal Server Error).
      */
     @POST
-    public Response adicionarAdministrador(Administrador administrador) {
-        try {
-            administradorService.adicionarAdministrador(administrador);
-            return Response.status(Response.Status.CREATED).build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void adicionarAdministrador(Administrador administrador, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                administradorService.adicionarAdministrador(administrador);
+                return Response.status(Response.Status.CREATED).build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     /**
      * Atualiza um administrador existente.
      *
      * @param administrador o administrador a ser atualizado.
-     * @return resposta HTTP com status 200 (OK) ou 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com status 200 (OK) ou 500 (Internal Server Error).
      */
     @PUT
-    public Response atualizarAdministrador(Administrador administrador) {
-        try {
-            administradorService.atualizarAdministrador(administrador);
-            return Response.ok().build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void atualizarAdministrador(Administrador administrador, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                administradorService.atualizarAdministrador(administrador);
+                return Response.ok().build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     /**
      * Remove um administrador pelo seu ID.
      *
      * @param id o ID do administrador a ser removido.
-     * @return resposta HTTP com status 200 (OK) ou 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com status 200 (OK) ou 500 (Internal Server Error).
      */
     @DELETE
     @Path("/{id}")
-    public Response removerAdministrador(@PathParam("id") int id) {
-        try {
-            administradorService.removerAdministrador(id);
-            return Response.ok().build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void removerAdministrador(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                administradorService.removerAdministrador(id);
+                return Response.ok().build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     /**
      * Busca um administrador pelo seu ID.
      *
      * @param id o ID do administrador.
-     * @return resposta HTTP com o administrador encontrado ou status 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com o administrador encontrado ou status 500 (Internal Server Error).
      */
     @GET
     @Path("/{id}")
-    public Response buscarAdministradorPorId(@PathParam("id") int id) {
-        try {
-            Administrador administrador = administradorService.buscarAdministradorPorId(id);
-            if (administrador != null) {
-                return Response.ok(administrador).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND).build();
+    public void buscarAdministradorPorId(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                Administrador administrador = administradorService.buscarAdministradorPorId(id);
+                if (administrador != null) {
+                    return Response.ok(administrador).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
             }
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+        });
     }
 
     /**
-     * Lista todos os administradores.
+     * Lista os administradores em páginas ordenadas por ID.
      *
-     * @return resposta HTTP com a lista de administradores ou status 500 (Internal Server Error).
+     * @param after o ID do último administrador da página anterior (cursor).
+     * @param limit o tamanho da página.
+     * @param uriInfo informações da URI da requisição, usadas no link da próxima página.
+     * @param resposta a resposta HTTP, retomada com a página de administradores e o cursor da próxima no
+     *         cabeçalho X-Next-Cursor, ou status 500 (Internal Server Error).
      */
     @GET
-    public Response listarAdministradores() {
-        try {
-            List<Administrador> administradores = administradorService.listarAdministradores();
-            return Response.ok(administradores).build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void listarAdministradores(@QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                                      @Context UriInfo uriInfo, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                return RespostaPaginada.ok(administradorService.listarAdministradores(after, limit), uriInfo);
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     /**
      * Autentica um administrador com base na credencial e senha.
      *
      * @param admin o administrador contendo a credencial e senha.
-     * @return resposta HTTP com status 200 (OK) se a autenticação for bem-sucedida ou 401 (Unauthorized) se falhar.
+     * @param resposta a resposta HTTP, retomada com status 200 (OK) se a autenticação for bem-sucedida ou 401
+     *         (Unauthorized) se falhar.
      */
     @POST
     @Path("/login")
-    public Response loginAdministrador(Administrador admin) {
-        try {
-            boolean isValid = administradorService.validarCredenciais(admin.getCredencial(), admin.getSenha());
-            if (isValid) {
-                return Response.ok().entity("{\"message\":\"Login successful\"}").build();
-            } else {
-                return Response.status(Response.Status.UNAUTHORIZED).entity("{\"message\":\"Invalid credentials\"}").build();
+    public void loginAdministrador(Administrador admin, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                boolean isValid = administradorService.validarCredenciais(admin.getCredencial(), admin.getSenha());
+                if (isValid) {
+                    return Response.ok().entity("{\"message\":\"Login successful\"}").build();
+                } else {
+                    return Response.status(Response.Status.UNAUTHORIZED).entity("{\"message\":\"Invalid credentials\"}").build();
+                }
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
             }
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+        });
     }
 }
@@ -0,0 +1,64 @@
+package fiap.tds.resources;
+
+import fiap.tds.infraestructure.CircuitBreaker;
+import fiap.tds.infraestructure.CompressaoInterceptor;
+import fiap.tds.infraestructure.DatabaseConnection;
+import fiap.tds.infraestructure.ExecutorBloqueante;
+import fiap.tds.infraestructure.HttpClientProvider;
+import fiap.tds.service.CepService;
+import fiap.tds.service.EmailVerificationService;
+import fiap.tds.service.ValidacaoAssincrona;
+import fiap.tds.service.ValidacaoConcorrente;
+import fiap.tds.service.ValidationService;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Classe de recurso para expor métricas internas da aplicação via API REST.
+ */
+@Path("/metricas")
+@Produces(MediaType.APPLICATION_JSON)
+public class MetricasResource {
+
+    /**
+     * Retorna as métricas dos pools de conexões (primário e réplica), do cache de statements,
+     * do pool do cliente HTTP, dos pools dos recursos assíncronos, dos caches de CEP e de verificação
+     * de email, da validação (recusas locais e externas), do pool de validação, da ingestão
+     * assíncrona de relatórios (fila, totais e atraso) e da compressão das respostas.
+     *
+     * @return resposta HTTP com status 200 (OK) e as métricas.
+     */
+    @GET
+    public Response obterMetricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("poolConexoes", DatabaseConnection.getEstatisticasPool());
+        metricas.put("poolReplica", DatabaseConnection.getEstatisticasPoolReplica());
+        metricas.put("cacheStatements", DatabaseConnection.getEstatisticasCacheStatements());
+        metricas.put("poolHttp", HttpClientProvider.getEstatisticas());
+        metricas.put("executoresAssincronos", ExecutorBloqueante.getEstatisticas());
+        metricas.put("cacheCep", CepService.getEstatisticas());
+        metricas.put("cacheEmail", EmailVerificationService.getEstatisticas());
+        metricas.put("validacao", ValidationService.getEstatisticas());
+        metricas.put("executorValidacao", ValidacaoConcorrente.getEstatisticas());
+        metricas.put("ingestaoAssincrona", ValidacaoAssincrona.getEstatisticas());
+        metricas.put("compressao", CompressaoInterceptor.getEstatisticas());
+        return Response.ok(metricas).build();
+    }
+
+    /**
+     * Retorna o estado dos circuit breakers das dependências externas.
+     *
+     * @return resposta HTTP com status 200 (OK) e o estado de cada circuito.
+     */
+    @GET
+    @Path("/circuitos")
+    public Response obterCircuitos() {
+        return Response.ok(CircuitBreaker.getEstados()).build();
+    }
+}
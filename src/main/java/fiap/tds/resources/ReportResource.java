@@ -1,13 +1,35 @@
 package fiap.tds.resources;
 
 import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.ExecutorBloqueante;
+import fiap.tds.infraestructure.FormatoBinarioWriter;
 import fiap.tds.models.Report;
+import fiap.tds.models.ResultadoItemLote;
 import fiap.tds.service.ReportService;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import org.glassfish.grizzly.http.server.Request;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 /**
  * Classe de recurso para gerenciar operações relacionadas a Report via API REST.
@@ -16,90 +38,235 @@ import java.util.List;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class ReportResource {
+    private static final Jsonb JSONB = JsonbBuilder.create();
+    // O lote valida cada email e CEP distinto, então tem um tempo limite próprio, maior que o das inclusões
+    private static final long TIMEOUT_LOTE_MS = AppConfig.getLong("async.lote.timeout-ms", 120000);
+    // Cada exportação prende uma conexão do pool até a última linha ser enviada ao cliente
+    private static final Semaphore EXPORTACOES = new Semaphore(Math.max(1, AppConfig.getInt("relatorios.exportacao.max-concorrentes", 2)));
     private ReportService reportService = new ReportService();
 
     /**
      * Adiciona um novo relatório.
      *
+     * Com o cabeçalho "Prefer: respond-async", o relatório é gravado como PENDING e validado em segundo
+     * plano; a resposta é 202 (Accepted) com a URL de status no cabeçalho Location. Se a ingestão
+     * assíncrona estiver desabilitada ou cheia, o relatório é validado na hora e a resposta é 201.
+     *
      * @param report o relatório a ser adicionado.
-     * @return resposta HTTP com status 201 (Created) ou 500 (Internal Server Error).
+     * @param prefer o cabeçalho Prefer da requisição.
+     * @param uriInfo informações da URI da requisição, usadas na URL de status.
+     * @param resposta a resposta HTTP, retomada com status 201 (Created), 202 (Accepted) ou 500 (Internal
+     *         Server Error).
      */
     @POST
-    public Response adicionarReport(Report report) {
-        try {
-            reportService.adicionarReport(report);
-            return Response.status(Response.Status.CREATED).entity("{\"message\": \"Report created successfully\"}").build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
-        }
+    public void adicionarReport(Report report, @HeaderParam("Prefer") String prefer, @Context UriInfo uriInfo,
+                                @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.EXTERNO, () -> {
+            try {
+                boolean assincrono = prefer != null && prefer.toLowerCase(Locale.ROOT).contains("respond-async");
+                if (!assincrono) {
+                    reportService.adicionarReport(report);
+                } else if (reportService.adicionarReportAssincrono(report)) {
+                    URI statusUrl = uriInfo.getAbsolutePathBuilder().path(String.valueOf(report.getId())).path("status").build();
+                    Map<String, Object> corpo = new LinkedHashMap<>();
+                    corpo.put("id", report.getId());
+                    corpo.put("status", report.getStatus());
+                    corpo.put("statusUrl", statusUrl.toString());
+                    return Response.accepted(corpo).location(statusUrl).header("Preference-Applied", "respond-async").build();
+                }
+                return Response.status(Response.Status.CREATED).entity("{\"message\": \"Report created successfully\"}").build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
+            }
+        });
+    }
+
+    /**
+     * Adiciona vários relatórios de uma vez.
+     *
+     * @param reports os relatórios a serem adicionados.
+     * @param resposta a resposta HTTP, retomada com status 200 (OK) e o resultado de cada relatório, ou 500
+     *         (Internal Server Error).
+     */
+    @POST
+    @Path("/batch")
+    public void adicionarReportsEmLote(List<Report> reports, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.EXTERNO, TIMEOUT_LOTE_MS, () -> {
+            try {
+                List<ResultadoItemLote> resultados = reportService.adicionarReportsEmLote(reports);
+                return Response.ok(resultados).build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
+            }
+        });
     }
 
     /**
      * Atualiza um relatório existente.
      *
      * @param report o relatório a ser atualizado.
-     * @return resposta HTTP com status 200 (OK) ou 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com status 200 (OK) ou 500 (Internal Server Error).
      */
     @PUT
-    public Response atualizarReport(Report report) {
-        try {
-            reportService.atualizarReport(report);
-            return Response.ok().entity("{\"message\": \"Report updated successfully\"}").build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
-        }
+    public void atualizarReport(Report report, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.EXTERNO, () -> {
+            try {
+                reportService.atualizarReport(report);
+                return Response.ok().entity("{\"message\": \"Report updated successfully\"}").build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
+            }
+        });
     }
 
     /**
      * Remove um relatório pelo seu ID.
      *
      * @param id o ID do relatório a ser removido.
-     * @return resposta HTTP com status 200 (OK) ou 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com status 200 (OK) ou 500 (Internal Server Error).
      */
     @DELETE
     @Path("/{id}")
-    public Response removerReport(@PathParam("id") int id) {
-        try {
-            reportService.removerReport(id);
-            return Response.ok().entity("{\"message\": \"Report deleted successfully\"}").build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
-        }
+    public void removerReport(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                reportService.removerReport(id);
+                return Response.ok().entity("{\"message\": \"Report deleted successfully\"}").build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
+            }
+        });
     }
 
     /**
      * Busca um relatório pelo seu ID.
      *
      * @param id o ID do relatório.
-     * @return resposta HTTP com o relatório encontrado ou status 500 (Internal Server Error).
+     * @param resposta a resposta HTTP, retomada com o relatório encontrado ou status 500 (Internal Server Error).
      */
     @GET
     @Path("/{id}")
-    public Response buscarReportPorId(@PathParam("id") int id) {
-        try {
-            Report report = reportService.buscarReportPorId(id);
-            if (report != null) {
-                return Response.ok(report).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND).entity("{\"error\": \"Report not found\"}").build();
+    public void buscarReportPorId(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                Report report = reportService.buscarReportPorId(id);
+                if (report != null) {
+                    return Response.ok(report).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND).entity("{\"error\": \"Report not found\"}").build();
+                }
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
             }
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
-        }
+        });
     }
 
     /**
-     * Lista todos os relatórios.
+     * Consulta o status de validação de um relatório aceito com "Prefer: respond-async".
      *
-     * @return resposta HTTP com a lista de relatórios ou status 500 (Internal Server Error).
+     * @param id o ID do relatório.
+     * @param resposta a resposta HTTP, retomada com o ID, o status (PENDING, VALID ou REJECTED) e o motivo da
+     *         rejeição, 404 (Not Found) ou 500 (Internal Server Error).
      */
     @GET
-    public Response listarReports() {
-        try {
-            List<Report> reports = reportService.listarReports();
-            return Response.ok(reports).build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
-        }
+    @Path("/{id}/status")
+    public void buscarStatusReport(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                Report report = reportService.buscarStatusReport(id);
+                if (report == null) {
+                    return Response.status(Response.Status.NOT_FOUND).entity("{\"error\": \"Report not found\"}").build();
+                }
+                Map<String, Object> corpo = new LinkedHashMap<>();
+                corpo.put("id", report.getId());
+                corpo.put("status", report.getStatus());
+                corpo.put("motivo", report.getMotivoStatus());
+                return Response.ok(corpo).build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
+            }
+        });
+    }
+
+    /**
+     * Exporta todos os relatórios como um array JSON escrito à medida que as linhas são lidas do banco,
+     * sem montar a lista completa em memória.
+     *
+     * A conexão com o banco fica emprestada durante toda a exportação (e pode passar de
+     * db.pool.leak-detection-threshold-ms em bases grandes ou clientes lentos), por isso no máximo
+     * relatorios.exportacao.max-concorrentes exportações rodam ao mesmo tempo. Se o banco falhar depois
+     * que parte do array foi enviada, a conexão HTTP é interrompida em vez de fechar o array, para que o
+     * cliente não confunda a resposta truncada com a exportação completa.
+     *
+     * @param request a requisição do Grizzly, usada para interromper a conexão em caso de falha.
+     * @return resposta HTTP com status 200 (OK) e o array de relatórios em streaming, ou 503 (Service
+     *         Unavailable) se já houver exportações demais em andamento.
+     */
+    @GET
+    @Path("/export")
+    public Response exportarReports(@Context Request request) {
+        StreamingOutput stream = output -> {
+            // A vaga é reservada só quando o corpo começa a ser escrito (um HEAD nunca chega aqui)
+            if (!EXPORTACOES.tryAcquire()) {
+                throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", 5)
+                        .type(MediaType.APPLICATION_JSON)
+                        .entity("{\"error\": \"Exportações demais em andamento, tente novamente.\"}").build());
+            }
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                int fetchSize = reportService.getFetchSizeExportacao();
+                int[] linhas = {0};
+                writer.write('[');
+                try {
+                    reportService.exportarReports(report -> {
+                        if (linhas[0] > 0) {
+                            writer.write(',');
+                        }
+                        writer.write(JSONB.toJson(report));
+                        // Envia cada bloco ao cliente enquanto o banco produz o próximo
+                        if (++linhas[0] % fetchSize == 1 || fetchSize == 1) {
+                            writer.flush();
+                        }
+                    });
+                } catch (DatabaseException e) {
+                    if (linhas[0] == 0) {
+                        // Nada foi enviado ainda: o cliente recebe 500
+                        throw new WebApplicationException(e.getMessage(), e, Response.Status.INTERNAL_SERVER_ERROR);
+                    }
+                    // O status 200 já foi enviado; fechar o array deixaria um JSON válido e incompleto
+                    request.getContext().getConnection().closeSilently();
+                    throw new IOException("Exportação interrompida após " + linhas[0] + " relatórios: " + e.getMessage(), e);
+                }
+                writer.write(']');
+                writer.flush();
+            } finally {
+                EXPORTACOES.release();
+            }
+        };
+        return Response.ok(stream).build();
+    }
+
+    /**
+     * Lista os relatórios em páginas ordenadas por ID.
+     *
+     * @param after o ID do último relatório da página anterior (cursor).
+     * @param limit o tamanho da página.
+     * @param uriInfo informações da URI da requisição, usadas no link da próxima página.
+     * @param resposta a resposta HTTP, retomada com a página de relatórios (em JSON, CBOR ou Smile, conforme o
+     *         Accept) e o cursor da próxima no cabeçalho X-Next-Cursor, ou status 500 (Internal Server Error).
+     */
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, FormatoBinarioWriter.APPLICATION_CBOR, FormatoBinarioWriter.APPLICATION_SMILE})
+    public void listarReports(@QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                              @Context UriInfo uriInfo, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                return RespostaPaginada.ok(reportService.listarReports(after, limit), uriInfo);
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .type(MediaType.APPLICATION_JSON).entity("{\"error\": \"" + e.getMessage() + "\"}").build();
+            }
+        });
     }
 }
@@ -0,0 +1,65 @@
+package fiap.tds.resources;
+
+import fiap.tds.infraestructure.ExecutorBloqueante;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Atende uma requisição suspensa (@Suspended AsyncResponse) em um {@link ExecutorBloqueante}.
+ *
+ * A thread do servidor é liberada assim que a tarefa entra no pool. Se a resposta não ficar pronta
+ * dentro do tempo limite, ou se o pool estiver cheio, o cliente recebe 503 com Retry-After. A tarefa
+ * que excedeu o tempo não é interrompida (interromper uma thread no meio de um JDBC pode invalidar a
+ * conexão): se ainda estiver na fila ela é descartada, e se já estiver rodando ela não grava mais nada
+ * (ver {@link ExecutorBloqueante#verificarAbandono()}), para que a repetição do cliente não duplique a escrita.
+ */
+final class RespostaAssincrona {
+
+    /**
+     * Trabalho que monta a resposta da requisição.
+     */
+    @FunctionalInterface
+    interface Tarefa {
+        Response executar();
+    }
+
+    private RespostaAssincrona() {
+    }
+
+    static void executar(AsyncResponse resposta, ExecutorBloqueante pool, Tarefa tarefa) {
+        executar(resposta, pool, pool.getTimeoutMs(), tarefa);
+    }
+
+    static void executar(AsyncResponse resposta, ExecutorBloqueante pool, long timeoutMs, Tarefa tarefa) {
+        if (timeoutMs > 0) {
+            resposta.setTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+            resposta.setTimeoutHandler(suspensa -> {
+                pool.registrarTempoEsgotado();
+                suspensa.resume(indisponivel("Tempo limite de " + timeoutMs + " ms excedido."));
+            });
+        }
+        try {
+            pool.executar(() -> {
+                try {
+                    resposta.resume(tarefa.executar());
+                } catch (RuntimeException e) {
+                    resposta.resume(e);
+                }
+            }, resposta::isDone);
+        } catch (RejectedExecutionException e) {
+            resposta.resume(indisponivel("Servidor ocupado, tente novamente."));
+        }
+    }
+
+    private static Response indisponivel(String mensagem) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", 1)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\": \"" + mensagem + "\"}")
+                .build();
+    }
+}
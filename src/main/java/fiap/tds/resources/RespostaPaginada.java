@@ -0,0 +1,32 @@
+package fiap.tds.resources;
+
+import fiap.tds.models.Pagina;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.net.URI;
+
+/**
+ * Monta a resposta HTTP das listagens paginadas por cursor.
+ *
+ * O corpo continua sendo o array de itens; o cursor da próxima página vai no cabeçalho
+ * X-Next-Cursor e no Link rel="next".
+ */
+final class RespostaPaginada {
+
+    private RespostaPaginada() {
+    }
+
+    static Response ok(Pagina<?> pagina, UriInfo uriInfo) {
+        Response.ResponseBuilder builder = Response.ok(pagina.getItens());
+        if (pagina.getProximoCursor() != null) {
+            URI proxima = uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("after", pagina.getProximoCursor())
+                    .replaceQueryParam("limit", pagina.getLimite())
+                    .build();
+            builder.header("X-Next-Cursor", pagina.getProximoCursor())
+                    .link(proxima, "next");
+        }
+        return builder.build();
+    }
+}
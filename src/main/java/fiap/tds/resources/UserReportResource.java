@@ -1,13 +1,17 @@
 package fiap.tds.resources;
 
 import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.ExecutorBloqueante;
+import fiap.tds.infraestructure.FormatoBinarioWriter;
 import fiap.tds.models.UserReport;
 import fiap.tds.service.UserReportService;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-
-import java.util.List;
+import jakarta.ws.rs.core.UriInfo;
 
 /**
  * Classe de recurso para gerenciar operações relacionadas a UserReport via API REST.
@@ -20,58 +24,70 @@ public class UserReportResource {
     private UserReportService userReportService = new UserReportService();
 
     @POST
-    public Response adicionarUserReport(UserReport userReport) {
-        try {
-            userReportService.adicionarUserReport(userReport);
-            return Response.status(Response.Status.CREATED).build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void adicionarUserReport(UserReport userReport, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.EXTERNO, () -> {
+            try {
+                userReportService.adicionarUserReport(userReport);
+                return Response.status(Response.Status.CREATED).build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     @PUT
-    public Response atualizarUserReport(UserReport userReport) {
-        try {
-            userReportService.atualizarUserReport(userReport);
-            return Response.ok().build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void atualizarUserReport(UserReport userReport, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.EXTERNO, () -> {
+            try {
+                userReportService.atualizarUserReport(userReport);
+                return Response.ok().build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     @DELETE
     @Path("/{id}")
-    public Response removerUserReport(@PathParam("id") int id) {
-        try {
-            userReportService.removerUserReport(id);
-            return Response.ok().build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    public void removerUserReport(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                userReportService.removerUserReport(id);
+                return Response.ok().build();
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
+            }
+        });
     }
 
     @GET
     @Path("/{id}")
-    public Response buscarUserReportPorId(@PathParam("id") int id) {
-        try {
-            UserReport userReport = userReportService.buscarUserReportPorId(id);
-            if (userReport != null) {
-                return Response.ok(userReport).build();
-            } else {
-                return Response.status(Response.Status.NOT_FOUND).build();
+    public void buscarUserReportPorId(@PathParam("id") int id, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                UserReport userReport = userReportService.buscarUserReportPorId(id);
+                if (userReport != null) {
+                    return Response.ok(userReport).build();
+                } else {
+                    return Response.status(Response.Status.NOT_FOUND).build();
+                }
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
             }
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+        });
     }
 
     @GET
-    public Response listarUserReports() {
-        try {
-            List<UserReport> userReports = userReportService.listarUserReports();
-            return Response.ok(userReports).build();
-        } catch (DatabaseException e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).entity(e.getMessage()).build();
-        }
+    @Produces({MediaType.APPLICATION_JSON, FormatoBinarioWriter.APPLICATION_CBOR, FormatoBinarioWriter.APPLICATION_SMILE})
+    public void listarUserReports(@QueryParam("after") Integer after, @QueryParam("limit") Integer limit,
+                                  @Context UriInfo uriInfo, @Suspended AsyncResponse resposta) {
+        RespostaAssincrona.executar(resposta, ExecutorBloqueante.BANCO, () -> {
+            try {
+                return RespostaPaginada.ok(userReportService.listarUserReports(after, limit), uriInfo);
+            } catch (DatabaseException e) {
+                return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                        .type(MediaType.APPLICATION_JSON).entity(e.getMessage()).build();
+            }
+        });
     }
 }
@@ -2,6 +2,7 @@ package fiap.tds.service;
 
 import fiap.tds.exception.DatabaseException;
 import fiap.tds.models.Administrador;
+import fiap.tds.models.Pagina;
 import fiap.tds.repositories.AdministradorRepository;
 
 import java.util.List;
@@ -20,13 +21,10 @@ public class AdministradorService {
      */
     public void adicionarAdministrador(Administrador administrador) throws DatabaseException {
         // Verifica se o nome do administrador já existe
-        List<Administrador> administradores = listarAdministradores();
-        for (Administrador adm : administradores) {
-            if (adm.getNome().equals(administrador.getNome())) {
-                throw new DatabaseException("Nome do administrador já existe.");
-            }
+        if (administradorRepository.existeNome(administrador.getNome(), 0)) {
+            throw new DatabaseException("Nome do administrador já existe.");
         }
-        administradorRepository.inserir(administrador);
+        administrador.setId(administradorRepository.inserir(administrador));
     }
 
     /**
@@ -36,12 +34,9 @@ public class AdministradorService {
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
     public void atualizarAdministrador(Administrador administrador) throws DatabaseException {
-        // Verifica se o nome do administrador já existe
-        List<Administrador> administradores = listarAdministradores();
-        for (Administrador adm : administradores) {
-            if (adm.getNome().equals(administrador.getNome()) && adm.getId() != administrador.getId()) {
-                throw new DatabaseException("Nome do administrador já existe.");
-            }
+        // Verifica se o nome já é usado por outro administrador
+        if (administradorRepository.existeNome(administrador.getNome(), administrador.getId())) {
+            throw new DatabaseException("Nome do administrador já existe.");
         }
         administradorRepository.atualizar(administrador);
     }
@@ -68,13 +63,17 @@ public class AdministradorService {
     }
 
     /**
-     * Lista todos os administradores.
+     * Lista uma página de administradores.
      *
-     * @return uma lista de administradores.
+     * @param apos o cursor (ID do último administrador da página anterior), ou null para a primeira página.
+     * @param limite o tamanho da página, limitado a paginacao.limite-maximo.
+     * @return a página de administradores e o cursor da próxima página.
      * @throws DatabaseException se ocorrer um erro durante a operação.
      */
-    public List<Administrador> listarAdministradores() throws DatabaseException {
-        return administradorRepository.listarTodos();
+    public Pagina<Administrador> listarAdministradores(Integer apos, Integer limite) throws DatabaseException {
+        int tamanho = Paginacao.limitar(limite);
+        List<Administrador> administradores = administradorRepository.listarPagina(Paginacao.cursor(apos), tamanho + 1);
+        return Paginacao.montar(administradores, tamanho, Administrador::getId);
     }
 
     /**
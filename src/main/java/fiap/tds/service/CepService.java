@@ -0,0 +1,224 @@
+package fiap.tds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.CepIndex;
+import fiap.tds.infraestructure.CircuitBreaker;
+import fiap.tds.infraestructure.HttpClientProvider;
+import fiap.tds.infraestructure.SingleFlight;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe de serviço para buscar endereços por CEP no ViaCEP, compartilhada por ReportService e UserReportService.
+ *
+ * As respostas ficam em um cache em memória (Caffeine, W-TinyLFU) com chave no CEP só com dígitos,
+ * limitado a cep.cache.max-entries. CEPs inexistentes ({"erro": true}) expiram em cep.cache.ttl-negativo-ms,
+ * os demais em cep.cache.ttl-ms. Falhas de comunicação não são guardadas, e buscas
+ * simultâneas do mesmo CEP compartilham uma única chamada ({@link SingleFlight}).
+ *
+ * Se cep.indice.arquivo apontar para um {@link CepIndex}, ele é consultado antes de tudo: CEPs dentro
+ * de uma faixa do índice são aceitos sem ir ao ViaCEP. As chamadas ao ViaCEP passam pelo
+ * {@link CircuitBreaker} "viacep".
+ */
+public class CepService {
+    private static final String VIA_CEP_BASE_URL = AppConfig.getString("cep.viacep.url", "https://viacep.com.br/ws/");
+    private static final long TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("cep.cache.ttl-ms", 86400000));
+    private static final long TTL_NEGATIVO_NANOS = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("cep.cache.ttl-negativo-ms", 600000));
+    private static final long MAX_ENTRADAS = AppConfig.getLong("cep.cache.max-entries", 10000);
+    private static final CircuitBreaker CIRCUITO = CircuitBreaker.de("viacep");
+    // Buscas simultâneas da mesma chave fazem uma única chamada externa
+    private static final SingleFlight<String, JsonNode> EM_ANDAMENTO = new SingleFlight<>();
+    private static final Logger logger = LogManager.getLogger(CepService.class);
+
+    private static final CepIndex INDICE = abrirIndice(AppConfig.getString("cep.indice.arquivo", ""));
+    private static final AtomicLong INDICE_HITS = new AtomicLong();
+    private static final AtomicLong INDICE_MISSES = new AtomicLong();
+    // Uma resposta por UF encontrada no índice
+    private static final ConcurrentMap<String, JsonNode> ENDERECOS_INDICE = new ConcurrentHashMap<>();
+
+    private static final Cache<String, JsonNode> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRADAS)
+            .expireAfter(new Expiry<String, JsonNode>() {
+                @Override
+                public long expireAfterCreate(String cep, JsonNode endereco, long agora) {
+                    return isCepInexistente(endereco) ? TTL_NEGATIVO_NANOS : TTL_NANOS;
+                }
+
+                @Override
+                public long expireAfterUpdate(String cep, JsonNode endereco, long agora, long duracaoAtual) {
+                    return expireAfterCreate(cep, endereco, agora);
+                }
+
+                @Override
+                public long expireAfterRead(String cep, JsonNode endereco, long agora, long duracaoAtual) {
+                    return duracaoAtual;
+                }
+            })
+            .recordStats()
+            .build();
+
+    /**
+     * Resposta usada para CEPs que não têm 8 dígitos, no mesmo formato do ViaCEP para CEP inexistente.
+     */
+    private static final JsonNode CEP_MAL_FORMADO = criarResposta("erro", true);
+
+    /**
+     * Resposta usada quando o ViaCEP está indisponível e a política do circuito é ACEITAR.
+     */
+    private static final JsonNode CEP_NAO_VERIFICADO = criarResposta("verificado", false);
+
+    private static CepIndex abrirIndice(String arquivo) {
+        if (arquivo.isEmpty()) {
+            return null;
+        }
+        try {
+            CepIndex indice = CepIndex.abrir(Paths.get(arquivo));
+            logger.info("Índice local de CEP carregado de {} ({} faixas)", arquivo, indice.getRegistros());
+            return indice;
+        } catch (IOException e) {
+            logger.error("Índice local de CEP não carregado, usando apenas o ViaCEP: ", e);
+            return null;
+        }
+    }
+
+    private static JsonNode criarEnderecoIndice(String uf) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("uf", uf);
+        node.put("origem", "indice-local");
+        return node;
+    }
+
+    private static JsonNode criarResposta(String campo, boolean valor) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put(campo, valor);
+        return node;
+    }
+
+    /**
+     * Verifica se a resposta do ViaCEP indica um CEP inexistente.
+     *
+     * @param endereco a resposta do ViaCEP.
+     * @return true se a resposta tiver "erro": true.
+     */
+    public static boolean isCepInexistente(JsonNode endereco) {
+        return endereco.get("erro") != null && endereco.get("erro").asBoolean();
+    }
+
+    /**
+     * Normaliza o CEP para a chave do cache, mantendo apenas os dígitos (11060-001 vira 11060001).
+     *
+     * @param cep o CEP informado.
+     * @return o CEP só com dígitos.
+     */
+    static String normalizar(String cep) {
+        StringBuilder digitos = new StringBuilder(8);
+        for (int i = 0; i < cep.length(); i++) {
+            char c = cep.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos.append(c);
+            }
+        }
+        return digitos.toString();
+    }
+
+    /**
+     * Busca o endereço a partir do CEP, consultando o índice local e o cache antes do ViaCEP.
+     *
+     * @param cep o CEP a ser buscado, com ou sem hífen.
+     * @return o JSON contendo o endereço ({"uf", "origem": "indice-local"} se veio do índice), {"erro": true} se o CEP não existir ou {"verificado": false}
+     *         se o ViaCEP estiver indisponível e a política for ACEITAR.
+     * @throws DatabaseException se o CEP for nulo ou vazio, ou se a busca falhar e a política for REJEITAR.
+     */
+    public JsonNode buscarEndereco(String cep) throws DatabaseException {
+        if (cep == null || cep.isEmpty()) {
+            throw new DatabaseException("CEP é nulo ou vazio.");
+        }
+
+        String chave = normalizar(cep);
+        if (chave.length() != 8) {
+            return CEP_MAL_FORMADO;
+        }
+
+        if (INDICE != null) {
+            String uf = INDICE.buscarUf(Integer.parseInt(chave));
+            if (uf != null) {
+                INDICE_HITS.incrementAndGet();
+                return ENDERECOS_INDICE.computeIfAbsent(uf, CepService::criarEnderecoIndice);
+            }
+            INDICE_MISSES.incrementAndGet();
+        }
+
+        JsonNode endereco = CACHE.getIfPresent(chave);
+        if (endereco != null) {
+            return endereco;
+        }
+        endereco = EM_ANDAMENTO.executar(chave, () -> {
+            JsonNode resultado = CIRCUITO.executar(() -> consultarViaCep(chave), null);
+            // Entra no cache antes de a chamada deixar de estar em andamento
+            if (resultado != null) {
+                CACHE.put(chave, resultado);
+            }
+            return resultado;
+        });
+        if (endereco == null) {
+            return CEP_NAO_VERIFICADO;
+        }
+        return endereco;
+    }
+
+    private JsonNode consultarViaCep(String cep) throws DatabaseException {
+        String url = VIA_CEP_BASE_URL + cep + "/json/";
+
+        try {
+            String jsonResponse = HttpClientProvider.get(url, CIRCUITO.getTimeoutMs());
+            logger.info("Resposta da busca de CEP: " + jsonResponse);
+
+            return HttpClientProvider.lerJson(jsonResponse);
+        } catch (IOException e) {
+            logger.error("Erro ao buscar endereço por CEP: ", e);
+            throw new DatabaseException("Erro ao buscar endereço por CEP.", e);
+        }
+    }
+
+    /**
+     * Retorna as métricas do cache de CEP.
+     *
+     * @return mapa com tamanho, acertos, faltas, remoções por tamanho/validade, taxa de acerto
+     *         e, se houver índice local, suas faixas, acertos e faltas.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        CacheStats stats = CACHE.stats();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("tamanho", CACHE.estimatedSize());
+        estatisticas.put("maximo", MAX_ENTRADAS);
+        estatisticas.put("hits", stats.hitCount());
+        estatisticas.put("misses", stats.missCount());
+        estatisticas.put("evictions", stats.evictionCount());
+        estatisticas.put("taxaAcerto", stats.hitRate());
+        estatisticas.put("chamadasCompartilhadas", EM_ANDAMENTO.getCompartilhadas());
+        estatisticas.put("emAndamento", EM_ANDAMENTO.getEmAndamento());
+        if (INDICE != null) {
+            estatisticas.put("indiceFaixas", INDICE.getRegistros());
+            estatisticas.put("indiceHits", INDICE_HITS.get());
+            estatisticas.put("indiceMisses", INDICE_MISSES.get());
+        }
+        return estatisticas;
+    }
+}
@@ -0,0 +1,172 @@
+package fiap.tds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.CircuitBreaker;
+import fiap.tds.infraestructure.HttpClientProvider;
+import fiap.tds.infraestructure.SingleFlight;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe de serviço para verificar emails no verificador externo, compartilhada por ReportService e UserReportService.
+ *
+ * O resultado fica em cache por email normalizado (sem espaços nas pontas e em minúsculas), limitado a
+ * email.cache.max-entries. Emails válidos expiram em email.cache.ttl-valido-ms e inválidos em
+ * email.cache.ttl-invalido-ms. Falhas de comunicação não são guardadas, e verificações
+ * simultâneas do mesmo email compartilham uma única chamada ({@link SingleFlight}).
+ *
+ * As chamadas ao verificador passam pelo {@link CircuitBreaker} "verificador-email".
+ */
+public class EmailVerificationService {
+    private static final String VERIFIER_BASE_URL = AppConfig.getString("email.verificador.url", "https://verifier.meetchopra.com/verify/");
+    private static final String VERIFIER_API_TOKEN = "92928b756e623357b3bd80e8dc90deae85bb184eda58afa5e71d7060430664ed9aa0d163b4a1ea1cc81357753dcd4a26";
+    private static final long TTL_VALIDO_NANOS = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("email.cache.ttl-valido-ms", 86400000));
+    private static final long TTL_INVALIDO_NANOS = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("email.cache.ttl-invalido-ms", 3600000));
+    private static final long MAX_ENTRADAS = AppConfig.getLong("email.cache.max-entries", 10000);
+    private static final CircuitBreaker CIRCUITO = CircuitBreaker.de("verificador-email");
+    // Buscas simultâneas da mesma chave fazem uma única chamada externa
+    private static final SingleFlight<String, Boolean> EM_ANDAMENTO = new SingleFlight<>();
+    private static final Logger logger = LogManager.getLogger(EmailVerificationService.class);
+
+    private static final Cache<String, Boolean> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRADAS)
+            .expireAfter(new Expiry<String, Boolean>() {
+                @Override
+                public long expireAfterCreate(String email, Boolean valido, long agora) {
+                    return valido ? TTL_VALIDO_NANOS : TTL_INVALIDO_NANOS;
+                }
+
+                @Override
+                public long expireAfterUpdate(String email, Boolean valido, long agora, long duracaoAtual) {
+                    return expireAfterCreate(email, valido, agora);
+                }
+
+                @Override
+                public long expireAfterRead(String email, Boolean valido, long agora, long duracaoAtual) {
+                    return duracaoAtual;
+                }
+            })
+            .recordStats()
+            .build();
+
+    /**
+     * Normaliza o email para a chave do cache e para a comparação entre emails.
+     *
+     * @param email o email informado.
+     * @return o email sem espaços nas pontas e em minúsculas.
+     */
+    public static String normalizar(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indica se dois emails são o mesmo depois de normalizados.
+     *
+     * @param email um email, pode ser nulo.
+     * @param outro outro email, pode ser nulo.
+     * @return true se ambos forem não nulos e iguais após a normalização.
+     */
+    public static boolean mesmoEmail(String email, String outro) {
+        return email != null && outro != null && normalizar(email).equals(normalizar(outro));
+    }
+
+    /**
+     * Verifica a validade do email, consultando o cache antes do verificador externo.
+     *
+     * @param email o email a ser verificado.
+     * @return true se o email for válido ou se o verificador estiver indisponível e a política for ACEITAR.
+     * @throws DatabaseException se o email for nulo ou vazio, ou se a verificação falhar e a política for REJEITAR.
+     */
+    public boolean verificar(String email) throws DatabaseException {
+        if (email == null || email.isEmpty()) {
+            throw new DatabaseException("Email é nulo ou vazio.");
+        }
+
+        String chave = normalizar(email);
+        Boolean valido = CACHE.getIfPresent(chave);
+        if (valido != null) {
+            return valido;
+        }
+        valido = EM_ANDAMENTO.executar(chave, () -> {
+            Boolean resultado = CIRCUITO.executar(() -> consultarVerificador(chave), null);
+            // Entra no cache antes de a chamada deixar de estar em andamento
+            if (resultado != null) {
+                CACHE.put(chave, resultado);
+            }
+            return resultado;
+        });
+        if (valido == null) {
+            // Aceito sem verificação; não vai para o cache
+            return true;
+        }
+        return valido;
+    }
+
+    private boolean consultarVerificador(String email) throws DatabaseException {
+        try {
+            String encodedEmail = URLEncoder.encode(email, StandardCharsets.UTF_8.toString());
+            String url = VERIFIER_BASE_URL + encodedEmail + "?token=" + VERIFIER_API_TOKEN.trim();
+
+            logger.info("Verificando email: " + email);
+
+            try {
+                String jsonResponse = HttpClientProvider.get(url, CIRCUITO.getTimeoutMs());
+                logger.info("Resposta da verificação de email: " + jsonResponse);
+
+                JsonNode responseJson = HttpClientProvider.lerJson(jsonResponse);
+
+                JsonNode status = responseJson.path("status");
+                if (!status.isBoolean()) {
+                    throw new DatabaseException("Resposta inválida do verificador de email.");
+                }
+                boolean isValid = status.asBoolean();
+                if (!isValid) {
+                    String errorMessage = responseJson.path("error").path("message").asText("motivo não informado");
+                    logger.warn("Email inválido: " + errorMessage);
+                }
+
+                return isValid;
+            } catch (IOException e) {
+                logger.error("Erro ao verificar email: ", e);
+                throw new DatabaseException("Erro ao verificar email.", e);
+            }
+        } catch (UnsupportedEncodingException e) {
+            logger.error("Erro ao codificar o email: ", e);
+            throw new DatabaseException("Erro ao codificar o email.", e);
+        }
+    }
+
+    /**
+     * Retorna as métricas do cache de verificação de email.
+     *
+     * @return mapa com tamanho, acertos, faltas, remoções e taxa de acerto.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        CacheStats stats = CACHE.stats();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("tamanho", CACHE.estimatedSize());
+        estatisticas.put("maximo", MAX_ENTRADAS);
+        estatisticas.put("hits", stats.hitCount());
+        estatisticas.put("misses", stats.missCount());
+        estatisticas.put("evictions", stats.evictionCount());
+        estatisticas.put("taxaAcerto", stats.hitRate());
+        estatisticas.put("chamadasCompartilhadas", EM_ANDAMENTO.getCompartilhadas());
+        estatisticas.put("emAndamento", EM_ANDAMENTO.getEmAndamento());
+        return estatisticas;
+    }
+}
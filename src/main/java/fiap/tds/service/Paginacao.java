@@ -0,0 +1,46 @@
+package fiap.tds.service;
+
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.models.Pagina;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Regras comuns da paginação por cursor (keyset) usada nas listagens.
+ */
+final class Paginacao {
+    static final int LIMITE_PADRAO = AppConfig.getInt("paginacao.limite-padrao", 50);
+    static final int LIMITE_MAXIMO = AppConfig.getInt("paginacao.limite-maximo", 500);
+
+    private Paginacao() {
+    }
+
+    /**
+     * Aplica o limite padrão quando ausente e o limite máximo quando excedido.
+     */
+    static int limitar(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return Math.min(LIMITE_PADRAO, LIMITE_MAXIMO);
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Normaliza o cursor recebido; sem cursor a listagem começa do primeiro ID.
+     */
+    static int cursor(Integer apos) {
+        return apos == null || apos < 0 ? 0 : apos;
+    }
+
+    /**
+     * Monta a página a partir de até limite + 1 linhas; a linha extra só indica que existe próxima página.
+     */
+    static <T> Pagina<T> montar(List<T> linhas, int limite, ToIntFunction<T> id) {
+        if (linhas.size() <= limite) {
+            return new Pagina<>(linhas, null, limite);
+        }
+        List<T> itens = linhas.subList(0, limite);
+        return new Pagina<>(itens, id.applyAsInt(itens.get(limite - 1)), limite);
+    }
+}
@@ -1,27 +1,27 @@
 package fiap.tds.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.UnitOfWork;
+import fiap.tds.models.Pagina;
 import fiap.tds.models.Report;
+import fiap.tds.models.ResultadoItemLote;
 import fiap.tds.models.UserReport;
 import fiap.tds.repositories.ReportRepository;
+import fiap.tds.repositories.RowHandler;
 import fiap.tds.repositories.UserReportRepository;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * Classe de serviço para gerenciar operações relacionadas a Report.
@@ -29,148 +29,312 @@ import java.util.regex.Pattern;
 public class ReportService {
     private ReportRepository reportRepository = new ReportRepository();
     private UserReportRepository userReportRepository = new UserReportRepository();
+    private ValidationService validationService = new ValidationService();
     private static final List<String> TIPOS_VALIDOS = Arrays.asList("incidente", "acidente", "vida marinha");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
-    private static final String VIA_CEP_BASE_URL = "https://viacep.com.br/ws/";
-    private static final String VERIFIER_BASE_URL = "https://verifier.meetchopra.com/verify/";
-    private static final String VERIFIER_API_TOKEN = "92928b756e623357b3bd80e8dc90deae85bb184eda58afa5e71d7060430664ed9aa0d163b4a1ea1cc81357753dcd4a26";
+    private static final int TAMANHO_LOTE = AppConfig.getInt("relatorios.lote.tamanho", 100);
+    private static final int MAX_ITENS_LOTE = AppConfig.getInt("relatorios.lote.max-itens", 1000);
+    private static final int FETCH_SIZE_EXPORTACAO = Math.max(1, AppConfig.getInt("relatorios.exportacao.fetch-size", 500));
     private static final Logger logger = LogManager.getLogger(ReportService.class);
 
-    private String encodeValue(String value) throws UnsupportedEncodingException {
-        return URLEncoder.encode(value, StandardCharsets.UTF_8.toString());
+    private int adicionarUsuario(UserReport userReport) throws DatabaseException {
+        int id = userReportRepository.inserir(userReport);
+        userReport.setId(id);
+        return id;
     }
 
-    private boolean verificaEmail(String email) throws DatabaseException {
-        if (email == null || email.isEmpty()) {
-            throw new DatabaseException("Email é nulo ou vazio.");
+    public void adicionarReport(Report report) throws DatabaseException {
+        if (!TIPOS_VALIDOS.contains(report.getTipo().toLowerCase())) {
+            throw new DatabaseException("Tipo de relatório inválido.");
         }
 
-        try {
-            String encodedEmail = encodeValue(email);
-            String url = VERIFIER_BASE_URL + encodedEmail + "?token=" + VERIFIER_API_TOKEN.trim();
-
-            logger.info("Verificando email: " + email + " com URL: " + url);
-
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                HttpGet request = new HttpGet(url);
-                try (CloseableHttpResponse response = httpClient.execute(request)) {
-                    String jsonResponse = EntityUtils.toString(response.getEntity());
-                    logger.info("Resposta da verificação de email: " + jsonResponse);
+        // Verificações locais primeiro; email e CEP só vão aos serviços externos se passarem
+        validationService.validar(report.getEmail(), report.getCep(), report.getCpf());
+        // O status nunca vem do corpo da requisição: validado na hora, o relatório já é publicado
+        report.setStatus(Report.VALID);
+        report.setMotivoStatus(null);
+        gravarComUsuario(report);
+    }
 
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    JsonNode responseJson = objectMapper.readTree(jsonResponse);
+    /**
+     * Aceita um relatório para validação em segundo plano.
+     *
+     * O tipo e as verificações locais (formato do email e do CEP, CPF) são feitos na hora; o relatório é
+     * gravado como PENDING e email e CEP são verificados nos serviços externos depois, pelo pool de
+     * {@link ValidacaoAssincrona}, que grava VALID ou REJECTED. Se a ingestão assíncrona
+     * estiver desabilitada ou sem vaga, o relatório segue o caminho síncrono de {@link #adicionarReport}.
+     *
+     * @param report o relatório a ser adicionado.
+     * @return true se o relatório foi aceito como PENDING; false se foi validado e gravado na hora.
+     * @throws DatabaseException se o tipo ou algum dado for inválido, ou ocorrer um erro ao gravar.
+     */
+    public boolean adicionarReportAssincrono(Report report) throws DatabaseException {
+        if (!TIPOS_VALIDOS.contains(report.getTipo().toLowerCase())) {
+            throw new DatabaseException("Tipo de relatório inválido.");
+        }
+        validationService.validarLocal(report.getEmail(), report.getCep(), report.getCpf());
+        if (!ValidacaoAssincrona.reservarVaga()) {
+            adicionarReport(report);
+            return false;
+        }
 
-                    boolean isValid = responseJson.get("status").asBoolean();
-                    if (!isValid) {
-                        String errorMessage = responseJson.get("error").get("message").asText();
-                        logger.warn("Email inválido: " + errorMessage);
-                    }
+        try {
+            report.setStatus(Report.PENDING);
+            report.setMotivoStatus(null);
+            gravarComUsuario(report);
+        } catch (DatabaseException | RuntimeException e) {
+            ValidacaoAssincrona.liberarVaga();
+            throw e;
+        }
+        String email = report.getEmail();
+        String cep = report.getCep();
+        ValidacaoAssincrona.enfileirar(report.getId(), () -> validationService.validarExterno(email, cep, true));
+        return true;
+    }
 
-                    return isValid;
-                } catch (IOException e) {
-                    logger.error("Erro ao verificar email: ", e);
-                    throw new DatabaseException("Erro ao verificar email.", e);
+    /**
+     * Coloca de volta na fila os relatórios que ficaram PENDING (por exemplo, depois de uma reinicialização).
+     *
+     * Roda em uma thread própria, esperando vaga no pool a cada relatório, para não atrasar a inicialização.
+     */
+    public void retomarValidacoesPendentes() {
+        Thread thread = new Thread(() -> {
+            try {
+                List<Report> pendentes = reportRepository.listarPendentes();
+                for (Report pendente : pendentes) {
+                    ValidacaoAssincrona.aguardarVaga();
+                    String email = pendente.getEmail();
+                    String cep = pendente.getCep();
+                    ValidacaoAssincrona.enfileirar(pendente.getId(), () -> validationService.validarExterno(email, cep, true));
+                }
+                if (!pendentes.isEmpty()) {
+                    logger.info("{} relatórios pendentes voltaram para a fila de validação", pendentes.size());
                 }
-            } catch (IOException e) {
-                logger.error("Erro ao configurar a requisição de verificação de email: ", e);
-                throw new DatabaseException("Erro ao configurar a requisição de verificação de email.", e);
+            } catch (DatabaseException e) {
+                logger.error("Erro ao retomar validações pendentes: ", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        } catch (UnsupportedEncodingException e) {
-            logger.error("Erro ao codificar o email: ", e);
-            throw new DatabaseException("Erro ao codificar o email.", e);
-        }
+        }, "retomada-validacoes");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Busca o status de validação de um relatório.
+     *
+     * @param id o ID do relatório.
+     * @return o relatório com ID, status e motivo, ou null se não for encontrado.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public Report buscarStatusReport(int id) throws DatabaseException {
+        return reportRepository.buscarStatus(id);
+    }
+
+    private void gravarComUsuario(Report report) throws DatabaseException {
+        UserReport userReport = new UserReport();
+        userReport.setNomeCompleto(report.getNomeCompleto());
+        userReport.setEmail(report.getEmail());
+        userReport.setCpf(report.getCpf());
+        userReport.setCep(report.getCep());
+
+        // Usuário e relatório são gravados na mesma transação
+        UnitOfWork.executar(() -> {
+            int userId = adicionarUsuario(userReport);
+            report.setUserReportId(userId);
+            report.setId(reportRepository.inserir(report));
+            return null;
+        });
     }
 
-    private JsonNode buscaEnderecoPorCep(String cep) throws DatabaseException {
-        if (cep == null || cep.isEmpty()) {
-            throw new DatabaseException("CEP é nulo ou vazio.");
+    /**
+     * Adiciona vários relatórios de uma vez.
+     *
+     * Email e CEP são validados uma única vez por valor distinto, usuários com os mesmos dados
+     * são gravados uma única vez e os relatórios válidos são inseridos com executeBatch em blocos
+     * de relatorios.lote.tamanho, cada bloco em sua própria transação. Se o banco recusar os dados de
+     * um item, o bloco é regravado item a item e só esse item fica como falha.
+     *
+     * @param reports os relatórios a serem adicionados.
+     * @return o resultado de cada relatório, na ordem recebida.
+     * @throws DatabaseException se o lote estiver vazio ou exceder o tamanho máximo.
+     */
+    public List<ResultadoItemLote> adicionarReportsEmLote(List<Report> reports) throws DatabaseException {
+        if (reports == null || reports.isEmpty()) {
+            throw new DatabaseException("Lote de relatórios vazio.");
+        }
+        if (reports.size() > MAX_ITENS_LOTE) {
+            throw new DatabaseException("Lote excede o máximo de " + MAX_ITENS_LOTE + " relatórios.");
         }
 
-        String url = VIA_CEP_BASE_URL + cep + "/json/";
+        ResultadoItemLote[] resultados = new ResultadoItemLote[reports.size()];
+        // Erro de validação por email/CEP já verificado (null quando válido)
+        Map<String, String> errosEmail = new HashMap<>();
+        Map<String, String> errosCep = new HashMap<>();
+        List<Integer> validos = new ArrayList<>();
 
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-            HttpGet request = new HttpGet(url);
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                String jsonResponse = EntityUtils.toString(response.getEntity());
-                logger.info("Resposta da busca de CEP: " + jsonResponse);
+        for (int i = 0; i < reports.size(); i++) {
+            String erro = validarItemLote(reports.get(i), errosEmail, errosCep);
+            if (erro != null) {
+                resultados[i] = ResultadoItemLote.falha(i, erro);
+            } else {
+                validos.add(i);
+            }
+        }
 
-                ObjectMapper objectMapper = new ObjectMapper();
-                return objectMapper.readTree(jsonResponse);
-            } catch (IOException e) {
-                logger.error("Erro ao buscar endereço por CEP: ", e);
-                throw new DatabaseException("Erro ao buscar endereço por CEP.", e);
+        Map<String, Integer> usuarios = new HashMap<>();
+        for (int inicio = 0; inicio < validos.size(); inicio += TAMANHO_LOTE) {
+            List<Integer> bloco = validos.subList(inicio, Math.min(inicio + TAMANHO_LOTE, validos.size()));
+            try {
+                gravarBloco(reports, bloco, usuarios);
+                for (int indice : bloco) {
+                    resultados[indice] = ResultadoItemLote.criado(indice);
+                }
+            } catch (DatabaseException e) {
+                if (bloco.size() > 1 && erroDeItem(e)) {
+                    // Um item com dados recusados pelo banco desfez o bloco; regrava item a item para isolá-lo
+                    logger.warn("Bloco do lote de relatórios recusado, gravando item a item: " + e.getMessage());
+                    for (int indice : bloco) {
+                        try {
+                            gravarBloco(reports, List.of(indice), usuarios);
+                            resultados[indice] = ResultadoItemLote.criado(indice);
+                        } catch (DatabaseException erroItem) {
+                            resultados[indice] = ResultadoItemLote.falha(indice, erroItem.getMessage());
+                        }
+                    }
+                } else {
+                    logger.error("Erro ao gravar bloco do lote de relatórios: ", e);
+                    for (int indice : bloco) {
+                        resultados[indice] = ResultadoItemLote.falha(indice, e.getMessage());
+                    }
+                }
             }
-        } catch (IOException e) {
-            logger.error("Erro ao configurar a requisição de busca de CEP: ", e);
-            throw new DatabaseException("Erro ao configurar a requisição de busca de CEP.", e);
         }
+        return Arrays.asList(resultados);
     }
 
-    private int adicionarUsuario(UserReport userReport) throws DatabaseException {
-        userReportRepository.inserir(userReport);
-        UserReport user = userReportRepository.buscarPorEmail(userReport.getEmail());
-        if (user == null) {
-            throw new DatabaseException("Erro ao inserir usuário no banco de dados");
+    /**
+     * Grava os relatórios do bloco, e os usuários ainda não gravados, em uma única transação.
+     * Se a transação for desfeita, os usuários criados nela são retirados do mapa de usuários.
+     */
+    private void gravarBloco(List<Report> reports, List<Integer> bloco, Map<String, Integer> usuarios) throws DatabaseException {
+        List<String> usuariosNovos = new ArrayList<>();
+        try {
+            UnitOfWork.executar(() -> {
+                List<Report> relatorios = new ArrayList<>(bloco.size());
+                for (int indice : bloco) {
+                    Report report = reports.get(indice);
+                    String chave = report.getEmail() + "|" + report.getNomeCompleto() + "|" + report.getCpf() + "|" + report.getCep();
+                    Integer userId = usuarios.get(chave);
+                    if (userId == null) {
+                        UserReport userReport = new UserReport();
+                        userReport.setNomeCompleto(report.getNomeCompleto());
+                        userReport.setEmail(report.getEmail());
+                        userReport.setCpf(report.getCpf());
+                        userReport.setCep(report.getCep());
+                        userId = adicionarUsuario(userReport);
+                        usuarios.put(chave, userId);
+                        usuariosNovos.add(chave);
+                    }
+                    report.setUserReportId(userId);
+                    // Os itens do lote já foram validados; o status do corpo da requisição é ignorado
+                    report.setStatus(Report.VALID);
+                    report.setMotivoStatus(null);
+                    relatorios.add(report);
+                }
+                reportRepository.inserirEmLote(relatorios);
+                return null;
+            });
+        } catch (DatabaseException e) {
+            // Os usuários deste bloco foram desfeitos junto com a transação
+            for (String chave : usuariosNovos) {
+                usuarios.remove(chave);
+            }
+            throw e;
         }
-        return user.getId();
     }
 
-    public void adicionarReport(Report report) throws DatabaseException {
-        if (!TIPOS_VALIDOS.contains(report.getTipo().toLowerCase())) {
-            throw new DatabaseException("Tipo de relatório inválido.");
-        }
+    /**
+     * Indica se o erro foi causado pelos dados de algum item (valor grande demais, restrição violada),
+     * e não pelo banco em si: só nesse caso vale regravar o bloco item a item.
+     */
+    private static boolean erroDeItem(DatabaseException e) {
+        Throwable causa = e.getCause();
+        return causa instanceof BatchUpdateException
+                || causa instanceof SQLDataException
+                || causa instanceof SQLIntegrityConstraintViolationException;
+    }
 
-        if (!verificaEmail(report.getEmail())) {
-            throw new DatabaseException("Email do usuário é inválido.");
+    /**
+     * Valida um relatório do lote, consultando email e CEP apenas na primeira ocorrência de cada valor.
+     *
+     * @return a mensagem de erro, ou null se o relatório for válido.
+     */
+    private String validarItemLote(Report report, Map<String, String> errosEmail, Map<String, String> errosCep) {
+        if (report == null) {
+            return "Relatório é nulo.";
+        }
+        if (report.getTipo() == null || !TIPOS_VALIDOS.contains(report.getTipo().toLowerCase())) {
+            return "Tipo de relatório inválido.";
         }
 
-        JsonNode endereco = buscaEnderecoPorCep(report.getCep());
-        if (endereco.get("erro") != null && endereco.get("erro").asBoolean()) {
-            throw new DatabaseException("CEP do usuário é inválido.");
+        try {
+            validationService.validarLocal(report.getEmail(), report.getCep(), report.getCpf());
+        } catch (DatabaseException e) {
+            return e.getMessage();
         }
 
-        UserReport userReport = new UserReport();
-        userReport.setNomeCompleto(report.getNomeCompleto());
-        userReport.setEmail(report.getEmail());
-        userReport.setCpf(report.getCpf());
-        userReport.setCep(report.getCep());
+        String email = report.getEmail();
+        if (!errosEmail.containsKey(email)) {
+            errosEmail.put(email, erroExterno(() -> validationService.validarEmailExterno(email)));
+        }
+        if (errosEmail.get(email) != null) {
+            return errosEmail.get(email);
+        }
 
-        int userId = adicionarUsuario(userReport);
+        String cep = report.getCep();
+        if (!errosCep.containsKey(cep)) {
+            errosCep.put(cep, erroExterno(() -> validationService.validarCepExterno(cep)));
+        }
+        return errosCep.get(cep);
+    }
 
-        report.setUserReportId(userId);
-        reportRepository.inserir(report);
+    private static String erroExterno(ValidacaoConcorrente.Validacao validacao) {
+        try {
+            validacao.validar();
+            return null;
+        } catch (DatabaseException e) {
+            return e.getMessage();
+        }
     }
 
     public void atualizarReport(Report report) throws DatabaseException {
         if (!TIPOS_VALIDOS.contains(report.getTipo().toLowerCase())) {
             throw new DatabaseException("Tipo de relatório inválido.");
         }
+        validationService.validarLocal(report.getEmail(), report.getCep(), report.getCpf());
 
-        UserReport userReport = userReportRepository.buscarPorId(report.getUserReportId());
+        UserReport userReport = userReportRepository.buscarPorIdIncluindoPendentes(report.getUserReportId());
         if (userReport == null) {
             throw new DatabaseException("Usuário não encontrado para o ID: " + report.getUserReportId());
         }
         logger.info("Usuário associado ao relatório: " + userReport);
 
-        if (!verificaEmail(report.getEmail())) {
-            throw new DatabaseException("Email do usuário é inválido.");
-        }
-
-        JsonNode endereco = buscaEnderecoPorCep(report.getCep());
-        logger.info("Endereço obtido pelo CEP: " + endereco);
-        if (endereco.get("erro") != null && endereco.get("erro").asBoolean()) {
-            throw new DatabaseException("CEP do usuário é inválido.");
-        }
+        // O verificador externo só é consultado se o email mudou; se mudou, email e CEP são validados em paralelo
+        boolean emailInalterado = EmailVerificationService.mesmoEmail(report.getEmail(), userReport.getEmail());
+        validationService.validarExterno(report.getEmail(), report.getCep(), !emailInalterado);
 
         // Atualizar dados do usuário
         userReport.setNomeCompleto(report.getNomeCompleto());
         userReport.setEmail(report.getEmail());
         userReport.setCpf(report.getCpf());
         userReport.setCep(report.getCep());
-        userReportRepository.atualizar(userReport);
 
-        // Atualizar dados do relatório
-        reportRepository.atualizar(report);
+        // Usuário e relatório são atualizados na mesma transação
+        UnitOfWork.executar(() -> {
+            userReportRepository.atualizar(userReport);
+            reportRepository.atualizar(report);
+            return null;
+        });
     }
 
     public void removerReport(int id) throws DatabaseException {
@@ -181,7 +345,35 @@ public class ReportService {
         return reportRepository.buscarPorId(id);
     }
 
-    public List<Report> listarReports() throws DatabaseException {
-        return reportRepository.listarTodos();
+    /**
+     * Percorre todos os relatórios, entregando cada um ao handler à medida que é lido do banco.
+     *
+     * @param handler quem recebe cada relatório.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     * @throws IOException se o handler falhar.
+     */
+    public void exportarReports(RowHandler<Report> handler) throws DatabaseException, IOException {
+        reportRepository.percorrerTodos(FETCH_SIZE_EXPORTACAO, handler);
+    }
+
+    /**
+     * Retorna o número de linhas trazidas do banco por ida e volta na exportação.
+     */
+    public int getFetchSizeExportacao() {
+        return FETCH_SIZE_EXPORTACAO;
+    }
+
+    /**
+     * Lista uma página de relatórios.
+     *
+     * @param apos o cursor (ID do último relatório da página anterior), ou null para a primeira página.
+     * @param limite o tamanho da página, limitado a paginacao.limite-maximo.
+     * @return a página de relatórios e o cursor da próxima página.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public Pagina<Report> listarReports(Integer apos, Integer limite) throws DatabaseException {
+        int tamanho = Paginacao.limitar(limite);
+        List<Report> reports = reportRepository.listarPagina(Paginacao.cursor(apos), tamanho + 1);
+        return Paginacao.montar(reports, tamanho, Report::getId);
     }
 }
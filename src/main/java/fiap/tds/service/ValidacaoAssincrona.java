@@ -0,0 +1,209 @@
+package fiap.tds.service;
+
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.DatabaseConnection;
+import fiap.tds.models.Report;
+import fiap.tds.repositories.ReportRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool que valida em segundo plano os relatórios aceitos como PENDING e grava o resultado (VALID ou REJECTED).
+ *
+ * A capacidade (relatorios.async.fila, somando os que esperam e os que estão sendo validados) é reservada
+ * antes de o relatório ser gravado; sem vaga, quem chama deve seguir pelo caminho síncrono. Se o status não
+ * puder ser gravado, o relatório continua PENDING e é retomado na próxima inicialização; o mesmo vale para os
+ * que não terminarem dentro do prazo do desligamento ({@link #encerrar(long)}).
+ */
+public final class ValidacaoAssincrona {
+    private static final boolean HABILITADA = AppConfig.getBoolean("relatorios.async.habilitada", true);
+    private static final int THREADS = Math.max(1, AppConfig.getInt("relatorios.async.threads", 4));
+    private static final int CAPACIDADE = Math.max(1, AppConfig.getInt("relatorios.async.fila", 1000));
+    private static final int TAMANHO_MOTIVO = 200;
+    private static final Logger logger = LogManager.getLogger(ValidacaoAssincrona.class);
+
+    private static final Semaphore VAGAS = new Semaphore(CAPACIDADE);
+    // A fila não precisa de limite próprio: só entra quem reservou uma vaga
+    private static final ThreadPoolExecutor EXECUTOR = criarExecutor();
+    private static final ReportRepository reportRepository = new ReportRepository();
+
+    private static final AtomicLong ACEITOS = new AtomicLong();
+    private static final AtomicLong VALIDADOS = new AtomicLong();
+    private static final AtomicLong REJEITADOS = new AtomicLong();
+    private static final AtomicLong FALHAS = new AtomicLong();
+    private static final AtomicLong DESCARTADOS = new AtomicLong();
+    private static final AtomicLong ATRASO_TOTAL_MS = new AtomicLong();
+    private static final AtomicLong ATRASO_MAXIMO_MS = new AtomicLong();
+
+    private ValidacaoAssincrona() {
+    }
+
+    private static ThreadPoolExecutor criarExecutor() {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "validacao-async-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Indica se a ingestão assíncrona está habilitada (relatorios.async.habilitada).
+     */
+    public static boolean isHabilitada() {
+        return HABILITADA;
+    }
+
+    /**
+     * Reserva uma vaga para um relatório, sem esperar.
+     *
+     * @return true se a vaga foi reservada; false se a ingestão assíncrona estiver desabilitada ou cheia.
+     */
+    static boolean reservarVaga() {
+        return HABILITADA && !EXECUTOR.isShutdown() && VAGAS.tryAcquire();
+    }
+
+    /**
+     * Espera até haver uma vaga, usado na retomada dos pendentes.
+     */
+    static void aguardarVaga() throws InterruptedException {
+        VAGAS.acquire();
+    }
+
+    /**
+     * Devolve uma vaga reservada que não chegou a ser usada.
+     */
+    static void liberarVaga() {
+        VAGAS.release();
+    }
+
+    /**
+     * Coloca na fila a validação de um relatório já gravado como PENDING. A vaga precisa ter sido reservada.
+     *
+     * @param reportId o ID do relatório.
+     * @param validacao a validação; o erro dela vira o motivo da rejeição.
+     */
+    static void enfileirar(int reportId, ValidacaoConcorrente.Validacao validacao) {
+        try {
+            EXECUTOR.execute(new Tarefa(reportId, validacao));
+        } catch (RejectedExecutionException e) {
+            // Só acontece no desligamento: o relatório já está gravado e é retomado na próxima inicialização
+            VAGAS.release();
+            logger.info("Relatório {} continua PENDING: validação assíncrona encerrada", reportId);
+            return;
+        }
+        ACEITOS.incrementAndGet();
+    }
+
+    /**
+     * Para de aceitar relatórios e espera as validações na fila e em andamento terminarem. As que não
+     * terminarem no prazo são abandonadas e os relatórios continuam PENDING.
+     *
+     * @param timeoutMs o tempo máximo de espera.
+     * @return true se todas as validações terminaram.
+     * @throws InterruptedException se a espera for interrompida.
+     */
+    public static boolean encerrar(long timeoutMs) throws InterruptedException {
+        EXECUTOR.shutdown();
+        int naFila = EXECUTOR.getQueue().size() + EXECUTOR.getActiveCount();
+        if (naFila > 0) {
+            logger.info("Aguardando {} validações assíncronas terminarem", naFila);
+        }
+        if (EXECUTOR.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        List<Runnable> abandonadas = EXECUTOR.shutdownNow();
+        logger.warn("{} validações assíncronas não terminaram no prazo; os relatórios continuam PENDING",
+                abandonadas.size() + EXECUTOR.getActiveCount());
+        return false;
+    }
+
+    /**
+     * Validação de um relatório, com o instante em que entrou na fila.
+     */
+    private static class Tarefa implements Runnable {
+        private final int reportId;
+        private final ValidacaoConcorrente.Validacao validacao;
+        private final long enfileiradaEm = System.currentTimeMillis();
+
+        Tarefa(int reportId, ValidacaoConcorrente.Validacao validacao) {
+            this.reportId = reportId;
+            this.validacao = validacao;
+        }
+
+        @Override
+        public void run() {
+            long atraso = System.currentTimeMillis() - enfileiradaEm;
+            ATRASO_TOTAL_MS.addAndGet(atraso);
+            ATRASO_MAXIMO_MS.accumulateAndGet(atraso, Math::max);
+            try {
+                String status = Report.VALID;
+                String motivo = null;
+                try {
+                    validacao.validar();
+                } catch (DatabaseException e) {
+                    status = Report.REJECTED;
+                    motivo = e.getMessage();
+                    if (motivo != null && motivo.length() > TAMANHO_MOTIVO) {
+                        motivo = motivo.substring(0, TAMANHO_MOTIVO);
+                    }
+                }
+                if (!reportRepository.atualizarStatus(reportId, status, motivo)) {
+                    DESCARTADOS.incrementAndGet();
+                    logger.info("Relatório {} foi atualizado ou removido durante a validação; resultado {} descartado",
+                            reportId, status);
+                    return;
+                }
+                (Report.VALID.equals(status) ? VALIDADOS : REJEITADOS).incrementAndGet();
+                logger.info("Relatório {} validado em segundo plano: {}", reportId, status);
+            } catch (DatabaseException | RuntimeException e) {
+                FALHAS.incrementAndGet();
+                logger.error("Erro ao gravar o status do relatório " + reportId + ", ele continua PENDING: ", e);
+            } finally {
+                VAGAS.release();
+                DatabaseConnection.limparEscritas();
+            }
+        }
+    }
+
+    /**
+     * Retorna as métricas da ingestão assíncrona.
+     *
+     * @return mapa com a profundidade da fila, validações em andamento, totais e o atraso entre
+     *         a aceitação e o início da validação.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        long iniciadas = VALIDADOS.get() + REJEITADOS.get() + FALHAS.get() + DESCARTADOS.get() + EXECUTOR.getActiveCount();
+        Runnable maisAntiga = EXECUTOR.getQueue().peek();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("habilitada", HABILITADA);
+        estatisticas.put("fila", EXECUTOR.getQueue().size());
+        estatisticas.put("emValidacao", EXECUTOR.getActiveCount());
+        estatisticas.put("capacidade", CAPACIDADE);
+        estatisticas.put("vagasLivres", VAGAS.availablePermits());
+        estatisticas.put("aceitos", ACEITOS.get());
+        estatisticas.put("validados", VALIDADOS.get());
+        estatisticas.put("rejeitados", REJEITADOS.get());
+        estatisticas.put("falhas", FALHAS.get());
+        estatisticas.put("descartados", DESCARTADOS.get());
+        estatisticas.put("atrasoMedioMs", iniciadas > 0 ? ATRASO_TOTAL_MS.get() / iniciadas : 0);
+        estatisticas.put("atrasoMaximoMs", ATRASO_MAXIMO_MS.get());
+        estatisticas.put("atrasoMaisAntigoNaFilaMs", maisAntiga instanceof Tarefa
+                ? System.currentTimeMillis() - ((Tarefa) maisAntiga).enfileiradaEm : 0);
+        return estatisticas;
+    }
+}
@@ -0,0 +1,145 @@
+package fiap.tds.service;
+
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.AppConfig;
+import fiap.tds.infraestructure.Cancelamento;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa validações externas (email, CEP) em paralelo em um pool limitado.
+ *
+ * A primeira validação que falhar encerra a espera: as demais são canceladas, com a chamada HTTP em
+ * andamento abortada (ver {@link Cancelamento}), e o erro dela é repassado. Com a fila cheia, a validação roda na própria thread da requisição.
+ */
+public final class ValidacaoConcorrente {
+    private static final int THREADS = AppConfig.getInt("validacao.executor.threads", 16);
+    private static final int FILA = AppConfig.getInt("validacao.executor.fila", 100);
+    private static final ThreadPoolExecutor EXECUTOR = criarExecutor();
+    private static final Logger logger = LogManager.getLogger(ValidacaoConcorrente.class);
+
+    private ValidacaoConcorrente() {
+    }
+
+    /**
+     * Uma validação que lança DatabaseException quando rejeita o valor.
+     */
+    @FunctionalInterface
+    interface Validacao {
+        void validar() throws DatabaseException;
+    }
+
+    private static ThreadPoolExecutor criarExecutor() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(FILA),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "validacao-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Como o CallerRunsPolicy, mas roda mesmo depois do encerramento: descartada, a tarefa
+                // deixaria quem espera o resultado parado
+                (tarefa, pool) -> tarefa.run());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Executa as validações em paralelo e espera todas terminarem.
+     *
+     * @param validacoes as validações a executar.
+     * @throws DatabaseException o erro da primeira validação que falhar.
+     */
+    static void executar(Validacao... validacoes) throws DatabaseException {
+        if (validacoes.length == 1) {
+            validacoes[0].validar();
+            return;
+        }
+
+        // Cada tarefa devolve o próprio erro (DatabaseException não é uma Exception)
+        CompletionService<DatabaseException> conclusoes = new ExecutorCompletionService<>(EXECUTOR);
+        List<Future<DatabaseException>> futuros = new ArrayList<>(validacoes.length);
+        List<Cancelamento> cancelamentos = new ArrayList<>(validacoes.length);
+        try {
+            for (Validacao validacao : validacoes) {
+                Cancelamento cancelamento = new Cancelamento();
+                cancelamentos.add(cancelamento);
+                futuros.add(conclusoes.submit(() -> cancelamento.executar(() -> {
+                    try {
+                        validacao.validar();
+                        return null;
+                    } catch (DatabaseException e) {
+                        return e;
+                    }
+                })));
+            }
+            for (int i = 0; i < validacoes.length; i++) {
+                DatabaseException erro = conclusoes.take().get();
+                if (erro != null) {
+                    throw erro;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            throw new DatabaseException("Erro na validação: " + causa.getMessage(), causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Validação interrompida.", e);
+        } finally {
+            // Sem efeito nas que já terminaram; as demais deixam de ser esperadas. A interrupção não
+            // desbloqueia o socket do HttpClient, por isso a requisição em andamento também é abortada
+            for (Future<DatabaseException> futuro : futuros) {
+                futuro.cancel(true);
+            }
+            for (Cancelamento cancelamento : cancelamentos) {
+                cancelamento.cancelar();
+            }
+        }
+    }
+
+    /**
+     * Encerra o pool, esperando as validações em andamento. Depois disso as validações rodam na
+     * thread de quem chama.
+     *
+     * @param timeoutMs o tempo máximo de espera.
+     * @return true se todas as validações terminaram.
+     * @throws InterruptedException se a espera for interrompida.
+     */
+    public static boolean encerrar(long timeoutMs) throws InterruptedException {
+        EXECUTOR.shutdown();
+        if (EXECUTOR.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        logger.warn("{} validações em paralelo não terminaram no prazo",
+                EXECUTOR.shutdownNow().size() + EXECUTOR.getActiveCount());
+        return false;
+    }
+
+    /**
+     * Retorna o estado atual do pool de validação.
+     *
+     * @return mapa com threads ativas, tamanho do pool, tarefas na fila e tarefas concluídas.
+     */
+    public static Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("ativas", EXECUTOR.getActiveCount());
+        estatisticas.put("threads", EXECUTOR.getPoolSize());
+        estatisticas.put("fila", EXECUTOR.getQueue().size());
+        estatisticas.put("concluidas", EXECUTOR.getCompletedTaskCount());
+        return estatisticas;
+    }
+}
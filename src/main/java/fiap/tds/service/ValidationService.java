@@ -0,0 +1,213 @@
+package fiap.tds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import fiap.tds.exception.DatabaseException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Validação dos dados de usuário (email, CEP e CPF) compartilhada por ReportService e UserReportService.
+ *
+ * As verificações locais (formato do email, 8 dígitos do CEP e dígitos verificadores do CPF) rodam primeiro
+ * e recusam dados inválidos em microssegundos; só o que passa por elas chega ao verificador de email e ao
+ * ViaCEP, que têm cache e proteção próprios em {@link EmailVerificationService} e {@link CepService}.
+ * As contagens e os tempos das duas etapas ficam em {@link #getEstatisticas()}.
+ */
+public class ValidationService {
+    static final String EMAIL_INVALIDO = "Email do usuário é inválido.";
+    static final String CEP_INVALIDO = "CEP do usuário é inválido.";
+    static final String CPF_INVALIDO = "CPF do usuário é inválido.";
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
+
+    private static final AtomicLong VALIDACOES = new AtomicLong();
+    private static final AtomicLong RECUSADOS_EMAIL_LOCAL = new AtomicLong();
+    private static final AtomicLong RECUSADOS_CEP_LOCAL = new AtomicLong();
+    private static final AtomicLong RECUSADOS_CPF_LOCAL = new AtomicLong();
+    private static final AtomicLong RECUSADOS_EMAIL_EXTERNO = new AtomicLong();
+    private static final AtomicLong RECUSADOS_CEP_EXTERNO = new AtomicLong();
+    private static final AtomicLong FALHAS_EXTERNAS = new AtomicLong();
+    private static final AtomicLong TEMPO_LOCAL_NS = new AtomicLong();
+    private static final AtomicLong CONSULTAS_EXTERNAS = new AtomicLong();
+    private static final AtomicLong TEMPO_EXTERNO_NS = new AtomicLong();
+
+    private final CepService cepService = new CepService();
+    private final EmailVerificationService emailVerificationService = new EmailVerificationService();
+
+    /**
+     * Valida email, CEP e CPF: primeiro as verificações locais, depois email e CEP em paralelo nos serviços externos.
+     *
+     * @param email o email do usuário.
+     * @param cep o CEP do usuário.
+     * @param cpf o CPF do usuário; só é verificado se informado.
+     * @throws DatabaseException se algum dado for inválido ou a verificação externa falhar.
+     */
+    public void validar(String email, String cep, String cpf) throws DatabaseException {
+        validarLocal(email, cep, cpf);
+        validarExterno(email, cep, true);
+    }
+
+    /**
+     * Faz só as verificações locais, sem rede.
+     *
+     * @param email o email do usuário.
+     * @param cep o CEP do usuário.
+     * @param cpf o CPF do usuário; só é verificado se informado.
+     * @throws DatabaseException com a mensagem do primeiro dado inválido.
+     */
+    public void validarLocal(String email, String cep, String cpf) throws DatabaseException {
+        VALIDACOES.incrementAndGet();
+        long inicio = System.nanoTime();
+        try {
+            if (email == null || !EMAIL_PATTERN.matcher(email.trim()).matches()) {
+                RECUSADOS_EMAIL_LOCAL.incrementAndGet();
+                throw new DatabaseException(EMAIL_INVALIDO);
+            }
+            if (cep == null || CepService.normalizar(cep).length() != 8) {
+                RECUSADOS_CEP_LOCAL.incrementAndGet();
+                throw new DatabaseException(CEP_INVALIDO);
+            }
+            if (cpf != null && !cpf.trim().isEmpty() && !isCpfValido(cpf)) {
+                RECUSADOS_CPF_LOCAL.incrementAndGet();
+                throw new DatabaseException(CPF_INVALIDO);
+            }
+        } finally {
+            TEMPO_LOCAL_NS.addAndGet(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Consulta o verificador de email e o ViaCEP, em paralelo quando os dois são necessários.
+     * Os dados já devem ter passado por {@link #validarLocal}.
+     *
+     * @param email o email do usuário.
+     * @param cep o CEP do usuário.
+     * @param verificarEmail false para consultar só o CEP.
+     * @throws DatabaseException se o email ou o CEP for recusado ou a consulta falhar.
+     */
+    public void validarExterno(String email, String cep, boolean verificarEmail) throws DatabaseException {
+        CONSULTAS_EXTERNAS.incrementAndGet();
+        long inicio = System.nanoTime();
+        try {
+            if (verificarEmail) {
+                ValidacaoConcorrente.executar(() -> validarEmailExterno(email), () -> validarCepExterno(cep));
+            } else {
+                validarCepExterno(cep);
+            }
+        } finally {
+            TEMPO_EXTERNO_NS.addAndGet(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Verifica o email no verificador externo.
+     *
+     * @param email o email a ser verificado.
+     * @throws DatabaseException se o email for recusado ou a verificação falhar.
+     */
+    public void validarEmailExterno(String email) throws DatabaseException {
+        boolean valido;
+        try {
+            valido = emailVerificationService.verificar(email);
+        } catch (DatabaseException e) {
+            FALHAS_EXTERNAS.incrementAndGet();
+            throw e;
+        }
+        if (!valido) {
+            RECUSADOS_EMAIL_EXTERNO.incrementAndGet();
+            throw new DatabaseException(EMAIL_INVALIDO);
+        }
+    }
+
+    /**
+     * Verifica se o CEP existe.
+     *
+     * @param cep o CEP a ser verificado.
+     * @throws DatabaseException se o CEP não existir ou a busca falhar.
+     */
+    public void validarCepExterno(String cep) throws DatabaseException {
+        JsonNode endereco;
+        try {
+            endereco = cepService.buscarEndereco(cep);
+        } catch (DatabaseException e) {
+            FALHAS_EXTERNAS.incrementAndGet();
+            throw e;
+        }
+        if (CepService.isCepInexistente(endereco)) {
+            RECUSADOS_CEP_EXTERNO.incrementAndGet();
+            throw new DatabaseException(CEP_INVALIDO);
+        }
+    }
+
+    /**
+     * Verifica os dígitos verificadores do CPF. Pontos, traço e espaços são ignorados.
+     *
+     * @param cpf o CPF informado.
+     * @return true se o CPF tiver 11 dígitos, não forem todos iguais e os verificadores baterem.
+     */
+    public static boolean isCpfValido(String cpf) {
+        int[] digitos = new int[11];
+        int quantidade = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (quantidade == 11) {
+                    return false;
+                }
+                digitos[quantidade++] = c - '0';
+            } else if (c != '.' && c != '-' && c != ' ') {
+                return false;
+            }
+        }
+        if (quantidade != 11) {
+            return false;
+        }
+        boolean todosIguais = true;
+        for (int i = 1; i < 11 && todosIguais; i++) {
+            todosIguais = digitos[i] == digitos[0];
+        }
+        if (todosIguais) {
+            return false;
+        }
+        return digitos[9] == digitoVerificador(digitos, 9) && digitos[10] == digitoVerificador(digitos, 10);
+    }
+
+    private static int digitoVerificador(int[] digitos, int posicao) {
+        int soma = 0;
+        for (int i = 0; i < posicao; i++) {
+            soma += digitos[i] * (posicao + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+
+    /**
+     * Retorna as métricas da validação.
+     *
+     * @return mapa com o total de validações, os recusados em cada etapa, as falhas dos serviços
+     *         externos e o tempo médio das etapas local (µs) e externa (ms).
+     */
+    public static Map<String, Object> getEstatisticas() {
+        long validacoes = VALIDACOES.get();
+        long consultas = CONSULTAS_EXTERNAS.get();
+        Map<String, Object> recusadosLocal = new LinkedHashMap<>();
+        recusadosLocal.put("email", RECUSADOS_EMAIL_LOCAL.get());
+        recusadosLocal.put("cep", RECUSADOS_CEP_LOCAL.get());
+        recusadosLocal.put("cpf", RECUSADOS_CPF_LOCAL.get());
+        Map<String, Object> recusadosExterno = new LinkedHashMap<>();
+        recusadosExterno.put("email", RECUSADOS_EMAIL_EXTERNO.get());
+        recusadosExterno.put("cep", RECUSADOS_CEP_EXTERNO.get());
+
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("validacoes", validacoes);
+        estatisticas.put("recusadosLocal", recusadosLocal);
+        estatisticas.put("consultasExternas", consultas);
+        estatisticas.put("recusadosExterno", recusadosExterno);
+        estatisticas.put("falhasExternas", FALHAS_EXTERNAS.get());
+        estatisticas.put("tempoMedioLocalUs", validacoes > 0 ? TEMPO_LOCAL_NS.get() / validacoes / 1000.0 : 0);
+        estatisticas.put("tempoMedioExternoMs", consultas > 0 ? TEMPO_EXTERNO_NS.get() / consultas / 1_000_000.0 : 0);
+        return estatisticas;
+    }
+}
@@ -0,0 +1,134 @@
+package fiap.tds.tools;
+
+import fiap.tds.infraestructure.CepIndex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ferramenta que gera o índice local de CEPs ({@link CepIndex}) a partir de um arquivo texto.
+ *
+ * Cada linha tem uma faixa (inicio;fim;UF) ou um CEP (cep;UF), separados por ';' ou ','. Linhas vazias,
+ * começando com '#' ou sem número no primeiro campo (cabeçalho) são ignoradas. CEPs e faixas contíguas
+ * da mesma UF são unidos em uma única faixa.
+ *
+ * Uso: mvn exec:java -Dexec.mainClass=fiap.tds.tools.CepIndexBuilder -Dexec.args="ceps.csv data/ceps.idx"
+ */
+public class CepIndexBuilder {
+    private static final Logger logger = LogManager.getLogger(CepIndexBuilder.class);
+
+    /**
+     * Faixa de CEPs lida do arquivo de entrada.
+     */
+    private static class Faixa {
+        private final int inicio;
+        private int fim;
+        private final String uf;
+
+        Faixa(int inicio, int fim, String uf) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.uf = uf;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: CepIndexBuilder <entrada.csv> <saida.idx>");
+            System.exit(1);
+        }
+        long inicio = System.currentTimeMillis();
+        List<Faixa> faixas = unir(ler(Paths.get(args[0])));
+
+        int[] inicios = new int[faixas.size()];
+        int[] fins = new int[faixas.size()];
+        String[] ufs = new String[faixas.size()];
+        for (int i = 0; i < faixas.size(); i++) {
+            inicios[i] = faixas.get(i).inicio;
+            fins[i] = faixas.get(i).fim;
+            ufs[i] = faixas.get(i).uf;
+        }
+        Path saida = Paths.get(args[1]);
+        if (saida.getParent() != null) {
+            Files.createDirectories(saida.getParent());
+        }
+        CepIndex.gravar(saida, inicios, fins, ufs);
+        logger.info("Índice de CEP gravado em {} com {} faixas em {} ms",
+                saida, faixas.size(), System.currentTimeMillis() - inicio);
+    }
+
+    private static List<Faixa> ler(Path entrada) throws IOException {
+        List<Faixa> faixas = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(entrada, StandardCharsets.UTF_8)) {
+            String linha;
+            int numero = 0;
+            while ((linha = reader.readLine()) != null) {
+                numero++;
+                linha = linha.trim();
+                if (linha.isEmpty() || linha.startsWith("#")) {
+                    continue;
+                }
+                String[] campos = linha.split("[;,]");
+                String primeiro = somenteDigitos(campos[0]);
+                if (primeiro.isEmpty()) {
+                    continue;
+                }
+                if (campos.length < 2 || campos.length > 3) {
+                    throw new IOException("Linha " + numero + " inválida: " + linha);
+                }
+                int cepInicio = paraCep(primeiro, numero);
+                int cepFim = campos.length == 3 ? paraCep(somenteDigitos(campos[1]), numero) : cepInicio;
+                String uf = campos[campos.length - 1].trim().toUpperCase(Locale.ROOT);
+                if (uf.length() != 2 || cepFim < cepInicio) {
+                    throw new IOException("Linha " + numero + " inválida: " + linha);
+                }
+                faixas.add(new Faixa(cepInicio, cepFim, uf));
+            }
+        }
+        return faixas;
+    }
+
+    /**
+     * Ordena as faixas e une as contíguas ou sobrepostas da mesma UF.
+     */
+    private static List<Faixa> unir(List<Faixa> faixas) throws IOException {
+        faixas.sort(Comparator.comparingInt((Faixa f) -> f.inicio));
+        List<Faixa> unidas = new ArrayList<>();
+        for (Faixa faixa : faixas) {
+            Faixa ultima = unidas.isEmpty() ? null : unidas.get(unidas.size() - 1);
+            if (ultima != null && faixa.inicio <= ultima.fim + 1) {
+                if (faixa.inicio <= ultima.fim && !ultima.uf.equals(faixa.uf)) {
+                    throw new IOException("Faixas sobrepostas com UFs diferentes: " + ultima.uf + " e " + faixa.uf
+                            + " em " + faixa.inicio);
+                }
+                if (ultima.uf.equals(faixa.uf)) {
+                    ultima.fim = Math.max(ultima.fim, faixa.fim);
+                    continue;
+                }
+            }
+            unidas.add(faixa);
+        }
+        return unidas;
+    }
+
+    private static String somenteDigitos(String valor) {
+        return valor.replaceAll("[^0-9]", "");
+    }
+
+    private static int paraCep(String digitos, int numero) throws IOException {
+        if (digitos.length() != 8) {
+            throw new IOException("Linha " + numero + ": CEP deve ter 8 dígitos: " + digitos);
+        }
+        return Integer.parseInt(digitos);
+    }
+}
@@ -0,0 +1,161 @@
+package fiap.tds.tools;
+
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.infraestructure.DatabaseConnection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ferramenta para popular o banco com dados sintéticos, usada para testes de carga locais.
+ *
+ * Uso: mvn exec:java -Ddb.profile=h2 -Dexec.mainClass=fiap.tds.tools.DataSeeder
+ * -Dexec.args="[relatorios] [usuarios] [tamanhoLote]"
+ */
+public class DataSeeder {
+    private static final String[] TIPOS = {"incidente", "acidente", "vida marinha"};
+    private static final String[] CEPS = {
+            "11060-001", "11045-000", "22021-001", "22070-011", "40140-130",
+            "88058-300", "60165-121", "51021-000", "57035-180", "29101-010"
+    };
+    private static final Logger logger = LogManager.getLogger(DataSeeder.class);
+
+    private final Random random = new Random(42);
+    private final int tamanhoLote;
+
+    public DataSeeder(int tamanhoLote) {
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public static void main(String[] args) throws DatabaseException {
+        int relatorios = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int usuarios = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, relatorios / 100);
+        int tamanhoLote = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        DataSeeder seeder = new DataSeeder(tamanhoLote);
+        long inicio = System.currentTimeMillis();
+        List<Integer> ids = seeder.inserirUsuarios(usuarios);
+        seeder.inserirRelatorios(relatorios, ids);
+        logger.info("{} usuários e {} relatórios inseridos em {} ms",
+                usuarios, relatorios, System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Insere usuários sintéticos e retorna os IDs gerados.
+     *
+     * @param quantidade o número de usuários.
+     * @return os IDs dos usuários inseridos.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public List<Integer> inserirUsuarios(int quantidade) throws DatabaseException {
+        String sql = "INSERT INTO tb_user_report (nome_completo, email_user, cpf_user, cep_user) VALUES (?, ?, ?, ?)";
+        String prefixo = "seed" + System.currentTimeMillis() + ".";
+        List<Integer> ids = new ArrayList<>(quantidade);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"id_user"})) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= quantidade; i++) {
+                stmt.setString(1, "Usuário Sintético " + i);
+                stmt.setString(2, prefixo + i + "@exemplo.com");
+                stmt.setString(3, gerarCpf());
+                stmt.setString(4, CEPS[random.nextInt(CEPS.length)]);
+                stmt.addBatch();
+                if (i % tamanhoLote == 0 || i == quantidade) {
+                    stmt.executeBatch();
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                    conn.commit();
+                }
+            }
+            conn.setAutoCommit(true);
+
+            if (ids.size() != quantidade) {
+                // Alguns drivers não retornam as chaves geradas em lote; busca pelos emails inseridos
+                ids.clear();
+                try (PreparedStatement busca = conn.prepareStatement("SELECT id_user FROM tb_user_report WHERE email_user LIKE ?")) {
+                    busca.setString(1, prefixo + "%");
+                    try (ResultSet rs = busca.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao inserir usuários sintéticos: " + e.getMessage(), e);
+        }
+        logger.info("{} usuários sintéticos inseridos", quantidade);
+        return ids;
+    }
+
+    /**
+     * Insere relatórios sintéticos associados aos usuários informados.
+     *
+     * @param quantidade o número de relatórios.
+     * @param usuarios os IDs dos usuários.
+     * @throws DatabaseException se ocorrer um erro durante a operação.
+     */
+    public void inserirRelatorios(int quantidade, List<Integer> usuarios) throws DatabaseException {
+        String sql = "INSERT INTO tb_report (user_report_id, tipo, descricao, latitude, longitude, data_hora, midia) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        long agora = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 1; i <= quantidade; i++) {
+                stmt.setInt(1, usuarios.get(random.nextInt(usuarios.size())));
+                stmt.setString(2, TIPOS[random.nextInt(TIPOS.length)]);
+                stmt.setString(3, "Relatório sintético " + i);
+                // Faixa aproximada do litoral brasileiro
+                stmt.setDouble(4, -3 - random.nextDouble() * 27);
+                stmt.setDouble(5, -35 - random.nextDouble() * 14);
+                stmt.setTimestamp(6, new Timestamp(agora - random.nextInt(365 * 24 * 3600) * 1000L));
+                stmt.setString(7, "https://res.cloudinary.com/bluemind/image/upload/seed/" + i + ".jpg");
+                stmt.addBatch();
+                if (i % tamanhoLote == 0 || i == quantidade) {
+                    stmt.executeBatch();
+                    conn.commit();
+                }
+                if (i % 100000 == 0) {
+                    logger.info("{} relatórios inseridos", i);
+                }
+            }
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new DatabaseException("Erro ao inserir relatórios sintéticos: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gera um CPF aleatório com dígitos verificadores válidos.
+     */
+    private String gerarCpf() {
+        int[] digitos = new int[11];
+        for (int i = 0; i < 9; i++) {
+            digitos[i] = random.nextInt(10);
+        }
+        for (int d = 9; d < 11; d++) {
+            int soma = 0;
+            for (int i = 0; i < d; i++) {
+                soma += digitos[i] * (d + 1 - i);
+            }
+            int resto = (soma * 10) % 11;
+            digitos[d] = resto == 10 ? 0 : resto;
+        }
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+}
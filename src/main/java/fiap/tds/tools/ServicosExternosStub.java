@@ -0,0 +1,357 @@
+package fiap.tds.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.tds.infraestructure.AppConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor local que faz o papel do ViaCEP e do verificador de email em testes de desempenho.
+ *
+ * Responde com payloads no formato dos serviços reais e injeta latência, erros e timeouts conforme as
+ * chaves stub.* (cada uma aceita sobrescrita por serviço, ex.: stub.viacep.latencia.p99-ms). As respostas
+ * são adiadas com Response.suspend(), sem prender uma thread do Grizzly por requisição.
+ *
+ * Regras dos payloads: CEPs começando com 00 não existem ({"erro": "true"}) e CEPs sem 8 dígitos
+ * recebem 400; emails com domínio terminado em .invalid ou com "invalido" antes do @ são rejeitados.
+ *
+ * Uso: mvn exec:java -Dexec.mainClass=fiap.tds.tools.ServicosExternosStub, e na API
+ * -Dcep.viacep.url=http://localhost:8089/ws/ -Demail.verificador.url=http://localhost:8089/verify/
+ * (ou stub.embutido=true para subir o stub junto com a API).
+ */
+public final class ServicosExternosStub {
+    private static final Logger logger = LogManager.getLogger(ServicosExternosStub.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // UF, cidade, estado, código IBGE, DDD e região pelo primeiro dígito do CEP
+    private static final String[][] CIDADES = {
+            {"SP", "São Paulo", "São Paulo", "3550308", "11", "Sudeste"},
+            {"SP", "São Paulo", "São Paulo", "3550308", "11", "Sudeste"},
+            {"RJ", "Rio de Janeiro", "Rio de Janeiro", "3304557", "21", "Sudeste"},
+            {"MG", "Belo Horizonte", "Minas Gerais", "3106200", "31", "Sudeste"},
+            {"BA", "Salvador", "Bahia", "2927408", "71", "Nordeste"},
+            {"PE", "Recife", "Pernambuco", "2611606", "81", "Nordeste"},
+            {"CE", "Fortaleza", "Ceará", "2304400", "85", "Nordeste"},
+            {"DF", "Brasília", "Distrito Federal", "5300108", "61", "Centro-Oeste"},
+            {"PR", "Curitiba", "Paraná", "4106902", "41", "Sul"},
+            {"RS", "Porto Alegre", "Rio Grande do Sul", "4314902", "51", "Sul"}
+    };
+
+    /**
+     * Distribuição da latência injetada.
+     */
+    public enum Distribuicao {
+        /** Sempre a mediana. */
+        FIXA,
+        /** Uniforme entre o mínimo e 2 * mediana - mínimo. */
+        UNIFORME,
+        /** Log-normal ajustada à mediana e ao p99, deslocada pelo mínimo; tem a cauda longa dos serviços reais. */
+        LOGNORMAL
+    }
+
+    /**
+     * Comportamento injetado em um serviço.
+     */
+    private static class Perfil {
+        private final Distribuicao distribuicao;
+        private final long minimoMs;
+        private final long medianaMs;
+        private final long p99Ms;
+        private final double taxaErro;
+        private final double taxaTimeout;
+        private final long timeoutMs;
+
+        Perfil(String servico) {
+            this.distribuicao = Distribuicao.valueOf(
+                    config(servico, "latencia.distribuicao", "LOGNORMAL").trim().toUpperCase(Locale.ROOT));
+            this.minimoMs = Math.max(0, Long.parseLong(config(servico, "latencia.min-ms", "5")));
+            this.medianaMs = Math.max(minimoMs, Long.parseLong(config(servico, "latencia.mediana-ms", "40")));
+            this.p99Ms = Math.max(medianaMs, Long.parseLong(config(servico, "latencia.p99-ms", "400")));
+            this.taxaErro = Double.parseDouble(config(servico, "taxa-erro", "0"));
+            this.taxaTimeout = Double.parseDouble(config(servico, "taxa-timeout", "0"));
+            this.timeoutMs = Long.parseLong(config(servico, "timeout-ms", "60000"));
+        }
+
+        long sortearLatencia(Random random) {
+            switch (distribuicao) {
+                case FIXA:
+                    return medianaMs;
+                case UNIFORME:
+                    return minimoMs + (long) (random.nextDouble() * 2 * (medianaMs - minimoMs));
+                default:
+                    // p99 = mediana * e^(2,326 * sigma), medidos a partir do mínimo
+                    double mediana = Math.max(1, medianaMs - minimoMs);
+                    double p99 = Math.max(mediana, p99Ms - minimoMs);
+                    double sigma = Math.log(p99 / mediana) / 2.326;
+                    return minimoMs + Math.round(mediana * Math.exp(sigma * random.nextGaussian()));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return distribuicao + " min=" + minimoMs + "ms mediana=" + medianaMs + "ms p99=" + p99Ms
+                    + "ms erro=" + taxaErro + " timeout=" + taxaTimeout;
+        }
+    }
+
+    /**
+     * Contadores de um serviço.
+     */
+    private static class Contadores {
+        private final AtomicLong requisicoes = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong latenciaTotalMs = new AtomicLong();
+
+        Map<String, Object> paraMapa() {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            long total = requisicoes.get();
+            mapa.put("requisicoes", total);
+            mapa.put("erros", erros.get());
+            mapa.put("timeouts", timeouts.get());
+            mapa.put("latenciaMediaMs", total > 0 ? latenciaTotalMs.get() / total : 0);
+            return mapa;
+        }
+    }
+
+    private final HttpServer server;
+    private final String urlBase;
+    private final ScheduledExecutorService agendador;
+    private final Random random;
+    private final Perfil perfilViaCep = new Perfil("viacep");
+    private final Perfil perfilVerificador = new Perfil("verificador");
+    private final Contadores contadoresViaCep = new Contadores();
+    private final Contadores contadoresVerificador = new Contadores();
+
+    private ServicosExternosStub(String host, int porta) {
+        String semente = AppConfig.getString("stub.semente", "");
+        this.random = semente.isEmpty() ? new Random() : new Random(Long.parseLong(semente));
+        this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "stub-latencia");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = new HttpServer();
+        this.server.addListener(new NetworkListener("stub", host, porta));
+        this.server.getServerConfiguration().addHttpHandler(new Handler(), "/");
+        this.urlBase = "http://" + host + ":" + porta + "/";
+    }
+
+    /**
+     * Sobe o stub com o host e a porta de stub.host e stub.porta.
+     *
+     * @return o stub em execução.
+     * @throws IOException se a porta não puder ser aberta.
+     */
+    public static ServicosExternosStub iniciar() throws IOException {
+        return iniciar(AppConfig.getString("stub.host", "localhost"), AppConfig.getInt("stub.porta", 8089));
+    }
+
+    /**
+     * Sobe o stub.
+     *
+     * @param host o host em que o stub escuta.
+     * @param porta a porta em que o stub escuta.
+     * @return o stub em execução.
+     * @throws IOException se a porta não puder ser aberta.
+     */
+    public static ServicosExternosStub iniciar(String host, int porta) throws IOException {
+        ServicosExternosStub stub = new ServicosExternosStub(host, porta);
+        stub.server.start();
+        logger.info("Stub dos serviços externos em {} (viacep: {}; verificador: {})",
+                stub.urlBase, stub.perfilViaCep, stub.perfilVerificador);
+        return stub;
+    }
+
+    /**
+     * Retorna a URL base no formato de cep.viacep.url.
+     */
+    public String getUrlViaCep() {
+        return urlBase + "ws/";
+    }
+
+    /**
+     * Retorna a URL base no formato de email.verificador.url.
+     */
+    public String getUrlVerificador() {
+        return urlBase + "verify/";
+    }
+
+    /**
+     * Retorna os contadores de requisições, erros, timeouts e latência média injetada de cada serviço.
+     */
+    public Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("viacep", contadoresViaCep.paraMapa());
+        estatisticas.put("verificador", contadoresVerificador.paraMapa());
+        return estatisticas;
+    }
+
+    /**
+     * Para o stub, descartando as respostas ainda adiadas.
+     */
+    public void parar() {
+        agendador.shutdownNow();
+        server.shutdownNow();
+        logger.info("Stub dos serviços externos parado: {}", getEstatisticas());
+    }
+
+    private static String config(String servico, String chave, String padrao) {
+        return AppConfig.getString("stub." + servico + "." + chave, AppConfig.getString("stub." + chave, padrao));
+    }
+
+    /**
+     * Atende /ws/{cep}/json/, /verify/{email} e /estatisticas.
+     */
+    private class Handler extends HttpHandler {
+        @Override
+        public void service(Request request, Response response) throws Exception {
+            String caminho = request.getRequestURI();
+            if (caminho.startsWith("/ws/")) {
+                responderComPerfil(response, perfilViaCep, contadoresViaCep, () -> respostaViaCep(caminho));
+            } else if (caminho.startsWith("/verify/")) {
+                responderComPerfil(response, perfilVerificador, contadoresVerificador, () -> respostaVerificador(caminho));
+            } else if (caminho.equals("/estatisticas")) {
+                escrever(response, new Resposta(200, MAPPER.writeValueAsString(getEstatisticas())));
+            } else {
+                escrever(response, new Resposta(404, "{\"erro\": \"Recurso não encontrado\"}"));
+            }
+        }
+    }
+
+    /**
+     * Resposta montada pelo stub.
+     */
+    private static class Resposta {
+        private final int status;
+        private final String corpo;
+
+        Resposta(int status, String corpo) {
+            this.status = status;
+            this.corpo = corpo;
+        }
+    }
+
+    @FunctionalInterface
+    private interface GeradorResposta {
+        Resposta gerar() throws IOException;
+    }
+
+    private void responderComPerfil(Response response, Perfil perfil, Contadores contadores, GeradorResposta gerador) {
+        contadores.requisicoes.incrementAndGet();
+        double sorteio = random.nextDouble();
+        long atraso;
+        Resposta resposta;
+        try {
+            if (sorteio < perfil.taxaTimeout) {
+                contadores.timeouts.incrementAndGet();
+                atraso = perfil.timeoutMs;
+                resposta = new Resposta(504, "{\"erro\": \"Tempo limite excedido\"}");
+            } else if (sorteio < perfil.taxaTimeout + perfil.taxaErro) {
+                contadores.erros.incrementAndGet();
+                atraso = perfil.sortearLatencia(random);
+                resposta = new Resposta(503, "{\"erro\": \"Serviço indisponível\"}");
+            } else {
+                atraso = perfil.sortearLatencia(random);
+                resposta = gerador.gerar();
+            }
+        } catch (IOException | RuntimeException e) {
+            contadores.erros.incrementAndGet();
+            atraso = 0;
+            resposta = new Resposta(500, "{\"erro\": \"Erro no stub\"}");
+        }
+        contadores.latenciaTotalMs.addAndGet(atraso);
+
+        Resposta pronta = resposta;
+        response.suspend();
+        agendador.schedule(() -> {
+            try {
+                escrever(response, pronta);
+            } catch (IOException e) {
+                logger.warn("Erro ao responder pelo stub: {}", e.getMessage());
+            } finally {
+                response.resume();
+            }
+        }, atraso, TimeUnit.MILLISECONDS);
+    }
+
+    private static void escrever(Response response, Resposta resposta) throws IOException {
+        byte[] corpo = resposta.corpo.getBytes(StandardCharsets.UTF_8);
+        response.setStatus(resposta.status);
+        response.setContentType("application/json; charset=utf-8");
+        response.setContentLength(corpo.length);
+        response.getOutputStream().write(corpo);
+    }
+
+    private static Resposta respostaViaCep(String caminho) throws IOException {
+        // /ws/{cep}/json/
+        String[] partes = caminho.split("/");
+        String cep = partes.length > 2 ? partes[2].replaceAll("[^0-9]", "") : "";
+        if (cep.length() != 8) {
+            return new Resposta(400, "{\"erro\": \"CEP inválido\"}");
+        }
+        if (cep.startsWith("00")) {
+            return new Resposta(200, "{\"erro\": \"true\"}");
+        }
+        String[] cidade = CIDADES[cep.charAt(0) - '0'];
+        Map<String, Object> endereco = new LinkedHashMap<>();
+        endereco.put("cep", cep.substring(0, 5) + "-" + cep.substring(5));
+        endereco.put("logradouro", "Rua " + cep.substring(5));
+        endereco.put("complemento", "");
+        endereco.put("unidade", "");
+        endereco.put("bairro", "Centro");
+        endereco.put("localidade", cidade[1]);
+        endereco.put("uf", cidade[0]);
+        endereco.put("estado", cidade[2]);
+        endereco.put("regiao", cidade[5]);
+        endereco.put("ibge", cidade[3]);
+        endereco.put("gia", "");
+        endereco.put("ddd", cidade[4]);
+        endereco.put("siafi", "");
+        return new Resposta(200, MAPPER.writeValueAsString(endereco));
+    }
+
+    private static Resposta respostaVerificador(String caminho) throws IOException {
+        // /verify/{email}?token=...
+        String email = URLDecoder.decode(caminho.substring("/verify/".length()), StandardCharsets.UTF_8.name())
+                .toLowerCase(Locale.ROOT);
+        int arroba = email.lastIndexOf('@');
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        if (arroba <= 0 || email.endsWith(".invalid") || email.substring(0, arroba).contains("invalido")) {
+            Map<String, Object> erro = new LinkedHashMap<>();
+            erro.put("code", 2);
+            erro.put("message", "Rejected Email");
+            resultado.put("status", false);
+            resultado.put("error", erro);
+        } else {
+            resultado.put("status", true);
+            resultado.put("email", email);
+            resultado.put("domain", email.substring(arroba + 1));
+        }
+        return new Resposta(200, MAPPER.writeValueAsString(resultado));
+    }
+
+    public static void main(String[] args) throws IOException {
+        ServicosExternosStub stub = iniciar();
+        logger.info("Use -Dcep.viacep.url={} -Demail.verificador.url={} na API. Enter para parar...",
+                stub.getUrlViaCep(), stub.getUrlVerificador());
+        System.in.read();
+        stub.parar();
+    }
+}
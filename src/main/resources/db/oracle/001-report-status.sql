@@ -0,0 +1,12 @@
+-- Migração do Oracle: status de validação dos relatórios (ingestão assíncrona).
+-- Relatórios já existentes foram validados na gravação, por isso o padrão é VALID.
+
+ALTER TABLE tb_report ADD (
+    status        VARCHAR2(10) DEFAULT 'VALID' NOT NULL,
+    motivo_status VARCHAR2(200)
+);
+
+ALTER TABLE tb_report ADD CONSTRAINT ck_report_status CHECK (status IN ('PENDING', 'VALID', 'REJECTED'));
+
+-- As consultas públicas filtram status = 'VALID' e paginam por id
+CREATE INDEX idx_report_status_id ON tb_report (status, id);
@@ -0,0 +1,41 @@
+-- Schema do perfil local (H2 em modo Oracle).
+-- Executado na criação do pool; os comandos são idempotentes.
+
+CREATE TABLE IF NOT EXISTS tb_user_report (
+    id_user       NUMBER(10) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome_completo VARCHAR2(150),
+    email_user    VARCHAR2(150),
+    cpf_user      VARCHAR2(14),
+    cep_user      VARCHAR2(9)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_report_email ON tb_user_report (email_user);
+
+CREATE TABLE IF NOT EXISTS tb_report (
+    id             NUMBER(10) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_report_id NUMBER(10) REFERENCES tb_user_report (id_user),
+    tipo           VARCHAR2(30),
+    descricao      VARCHAR2(1000),
+    latitude       BINARY_DOUBLE,
+    longitude      BINARY_DOUBLE,
+    data_hora      TIMESTAMP,
+    midia          VARCHAR2(500),
+    status         VARCHAR2(10) DEFAULT 'VALID' NOT NULL,
+    motivo_status  VARCHAR2(200)
+);
+
+-- Bancos locais criados antes do status de validação
+ALTER TABLE tb_report ADD COLUMN IF NOT EXISTS status VARCHAR2(10) DEFAULT 'VALID' NOT NULL;
+ALTER TABLE tb_report ADD COLUMN IF NOT EXISTS motivo_status VARCHAR2(200);
+
+CREATE INDEX IF NOT EXISTS idx_report_user ON tb_report (user_report_id);
+-- As consultas públicas filtram status = 'VALID' e paginam por id
+DROP INDEX IF EXISTS idx_report_status;
+CREATE INDEX IF NOT EXISTS idx_report_status_id ON tb_report (status, id);
+
+CREATE TABLE IF NOT EXISTS tb_administrador (
+    id_adm         NUMBER(10) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nome_adm       VARCHAR2(100),
+    credencial_adm VARCHAR2(100),
+    senha_adm      VARCHAR2(100)
+);
@@ -0,0 +1,126 @@
+package fiap.tds.benchmark;
+
+import fiap.tds.models.Report;
+import fiap.tds.repositories.ReportRowMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Compara a leitura de tb_report com SELECT * e getXxx("coluna") contra a projeção explícita
+ * com {@link ReportRowMapper} (acesso por posição). O score é em linhas por segundo.
+ *
+ * Uso: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath fiap.tds.benchmark.RowMapperBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+    private static final int LINHAS = 100000;
+
+    private Connection conn;
+    private PreparedStatement selectTodos;
+    private PreparedStatement selectProjecao;
+
+    @Setup
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:benchmark;MODE=Oracle", "sa", "");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE tb_report (id NUMBER(10) PRIMARY KEY, user_report_id NUMBER(10), tipo VARCHAR2(30), "
+                    + "descricao VARCHAR2(1000), latitude BINARY_DOUBLE, longitude BINARY_DOUBLE, data_hora TIMESTAMP, midia VARCHAR2(500), "
+                    + "status VARCHAR2(10) DEFAULT 'VALID' NOT NULL, motivo_status VARCHAR2(200))");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO tb_report (id, user_report_id, tipo, descricao, latitude, longitude, data_hora, midia) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= LINHAS; i++) {
+                stmt.setInt(1, i);
+                stmt.setInt(2, i % 1000);
+                stmt.setString(3, "incidente");
+                stmt.setString(4, "Relatório " + i);
+                stmt.setDouble(5, -23.9);
+                stmt.setDouble(6, -46.3);
+                stmt.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+                stmt.setString(8, "https://res.cloudinary.com/bluemind/image/upload/" + i + ".jpg");
+                stmt.addBatch();
+                if (i % 1000 == 0) {
+                    stmt.executeBatch();
+                }
+            }
+        }
+        selectTodos = conn.prepareStatement("SELECT * FROM tb_report");
+        selectProjecao = conn.prepareStatement("SELECT " + ReportRowMapper.COLUNAS + " FROM tb_report");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    /**
+     * Mapeamento anterior: SELECT * e busca das colunas pelo nome em cada linha.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void porNome(Blackhole bh) throws SQLException {
+        try (ResultSet rs = selectTodos.executeQuery()) {
+            while (rs.next()) {
+                Report report = new Report();
+                report.setId(rs.getInt("id"));
+                report.setUserReportId(rs.getInt("user_report_id"));
+                report.setTipo(rs.getString("tipo"));
+                report.setDescricao(rs.getString("descricao"));
+                report.setLatitude(rs.getDouble("latitude"));
+                report.setLongitude(rs.getDouble("longitude"));
+                report.setDataHora(rs.getTimestamp("data_hora"));
+                report.setMidia(rs.getString("midia"));
+                report.setStatus(rs.getString("status"));
+                report.setMotivoStatus(rs.getString("motivo_status"));
+                bh.consume(report);
+            }
+        }
+    }
+
+    /**
+     * Mapeamento atual: colunas explícitas e acesso por posição.
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void porPosicao(Blackhole bh) throws SQLException {
+        try (ResultSet rs = selectProjecao.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(ReportRowMapper.INSTANCE.map(rs));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RowMapperBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
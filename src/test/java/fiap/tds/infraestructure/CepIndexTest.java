@@ -0,0 +1,61 @@
+package fiap.tds.infraestructure;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CepIndexTest {
+
+    @TempDir
+    Path pasta;
+
+    /**
+     * Test to see that both ends of each range are inclusive and that CEPs before the first range,
+     * in a gap between ranges and after the last range are not found.
+     */
+    @Test
+    public void testLimitesDasFaixas() throws Exception {
+        Path arquivo = pasta.resolve("ceps.idx");
+        CepIndex.gravar(arquivo,
+                new int[]{1000000, 20000000, 30000000},
+                new int[]{19999999, 28999999, 39999999},
+                new String[]{"SP", "RJ", "MG"});
+        CepIndex indice = CepIndex.abrir(arquivo);
+
+        assertEquals(3, indice.getRegistros());
+        assertNull(indice.buscarUf(0));
+        assertNull(indice.buscarUf(999999));
+        assertEquals("SP", indice.buscarUf(1000000));
+        assertEquals("SP", indice.buscarUf(11060001));
+        assertEquals("SP", indice.buscarUf(19999999));
+        assertEquals("RJ", indice.buscarUf(20000000));
+        assertEquals("RJ", indice.buscarUf(28999999));
+        assertNull(indice.buscarUf(29000000));
+        assertNull(indice.buscarUf(29999999));
+        assertEquals("MG", indice.buscarUf(30000000));
+        assertEquals("MG", indice.buscarUf(39999999));
+        assertNull(indice.buscarUf(40000000));
+        assertNull(indice.buscarUf(99999999));
+    }
+
+    /**
+     * Test to see that single-CEP ranges and an empty index are handled.
+     */
+    @Test
+    public void testFaixaUnicaEIndiceVazio() throws Exception {
+        Path arquivo = pasta.resolve("unica.idx");
+        CepIndex.gravar(arquivo, new int[]{70000000}, new int[]{70000000}, new String[]{"DF"});
+        CepIndex indice = CepIndex.abrir(arquivo);
+        assertNull(indice.buscarUf(69999999));
+        assertEquals("DF", indice.buscarUf(70000000));
+        assertNull(indice.buscarUf(70000001));
+
+        Path vazio = pasta.resolve("vazio.idx");
+        CepIndex.gravar(vazio, new int[0], new int[0], new String[0]);
+        assertNull(CepIndex.abrir(vazio).buscarUf(11060001));
+    }
+}
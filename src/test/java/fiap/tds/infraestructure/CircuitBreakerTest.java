@@ -0,0 +1,168 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class CircuitBreakerTest {
+
+    /**
+     * Test to see that the circuit opens after the configured failures, lets a single test call
+     * through once the open time has passed, and closes again when that call succeeds.
+     */
+    @Test
+    public void testFechadoAbertoMeioAbertoFechado() throws Throwable {
+        CircuitBreaker circuito = criar("teste-transicoes", "2", "100", "5", "REJEITAR");
+        AtomicInteger chamadas = new AtomicInteger();
+
+        assertFalha("Falha 1", circuito, chamadas);
+        assertEquals("FECHADO", estado("teste-transicoes"));
+        assertFalha("Falha 2", circuito, chamadas);
+        assertEquals("ABERTO", estado("teste-transicoes"));
+
+        // Aberto, a chamada nem é feita
+        assertFalha("Serviço externo teste-transicoes indisponível.", circuito, chamadas);
+        assertEquals(2, chamadas.get());
+
+        // Passado o tempo aberto, a chamada de teste que falha abre o circuito de novo
+        Thread.sleep(150);
+        assertFalha("Falha 3", circuito, chamadas);
+        assertEquals("ABERTO", estado("teste-transicoes"));
+
+        Thread.sleep(150);
+        assertEquals("ok", circuito.executar(() -> "ok", null));
+        assertEquals("FECHADO", estado("teste-transicoes"));
+        assertEquals(0, estatisticas("teste-transicoes").get("falhasSeguidas"));
+    }
+
+    /**
+     * Test to see that an unchecked exception on the half-open test call reopens the circuit instead of
+     * leaving it half-open, which would refuse every call from then on.
+     */
+    @Test
+    public void testExcecaoNaoVerificadaNaChamadaDeTesteReabreOCircuito() throws Throwable {
+        CircuitBreaker circuito = criar("teste-runtime", "1", "100", "5", "REJEITAR");
+        AtomicInteger chamadas = new AtomicInteger();
+        assertFalha("Falha 1", circuito, chamadas);
+        assertEquals("ABERTO", estado("teste-runtime"));
+
+        Thread.sleep(150);
+        try {
+            circuito.executar(() -> {
+                throw new NullPointerException("status ausente");
+            }, null);
+            fail("A chamada de teste deveria ter falhado");
+        } catch (DatabaseException e) {
+            assertEquals("Erro inesperado no serviço externo teste-runtime: status ausente", e.getMessage());
+        }
+        assertEquals("ABERTO", estado("teste-runtime"));
+
+        Thread.sleep(150);
+        assertEquals("ok", circuito.executar(() -> "ok", null));
+        assertEquals("FECHADO", estado("teste-runtime"));
+    }
+
+    /**
+     * Test to see that calls above max-concorrentes are refused without waiting.
+     */
+    @Test
+    public void testBulkheadRecusaChamadasExcedentes() throws Throwable {
+        CircuitBreaker circuito = criar("teste-bulkhead", "5", "30000", "1", "REJEITAR");
+        CountDownLatch emAndamento = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> primeira = executor.submit(() -> {
+                try {
+                    return circuito.executar(() -> {
+                        emAndamento.countDown();
+                        aguardar(liberar);
+                        return "primeira";
+                    }, null);
+                } catch (DatabaseException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertEquals(true, emAndamento.await(5, TimeUnit.SECONDS));
+
+            try {
+                circuito.executar(() -> "segunda", null);
+                fail("A segunda chamada deveria ter sido recusada pelo bulkhead");
+            } catch (DatabaseException e) {
+                assertEquals("Serviço externo teste-bulkhead sobrecarregado.", e.getMessage());
+            }
+
+            liberar.countDown();
+            assertEquals("primeira", primeira.get(5, TimeUnit.SECONDS));
+            assertEquals("terceira", circuito.executar(() -> "terceira", null));
+            assertEquals(1L, estatisticas("teste-bulkhead").get("rejeitadasBulkhead"));
+            assertEquals("FECHADO", estado("teste-bulkhead"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test to see that, with the ACEITAR policy, a failing or unavailable dependency yields the degraded value.
+     */
+    @Test
+    public void testPoliticaAceitarDevolveValorDegradado() throws Throwable {
+        CircuitBreaker circuito = criar("teste-degradado", "1", "30000", "5", "ACEITAR");
+
+        assertEquals("degradado", circuito.executar(() -> {
+            throw new DatabaseException("Falha");
+        }, "degradado"));
+        assertEquals("ABERTO", estado("teste-degradado"));
+        // Com o circuito aberto, o valor degradado vem sem chamar a dependência
+        assertEquals("degradado", circuito.executar(() -> "real", "degradado"));
+        assertEquals(2L, estatisticas("teste-degradado").get("aceitasDegradadas"));
+    }
+
+    private static CircuitBreaker criar(String nome, String falhasParaAbrir, String tempoAbertoMs,
+                                        String maxConcorrentes, String politica) {
+        System.setProperty("resiliencia." + nome + ".falhas-para-abrir", falhasParaAbrir);
+        System.setProperty("resiliencia." + nome + ".tempo-aberto-ms", tempoAbertoMs);
+        System.setProperty("resiliencia." + nome + ".max-concorrentes", maxConcorrentes);
+        System.setProperty("resiliencia." + nome + ".politica", politica);
+        return CircuitBreaker.de(nome);
+    }
+
+    private static void assertFalha(String mensagem, CircuitBreaker circuito, AtomicInteger chamadas) {
+        try {
+            circuito.executar(() -> {
+                throw new DatabaseException("Falha " + chamadas.incrementAndGet());
+            }, null);
+            fail("A chamada deveria ter falhado");
+        } catch (DatabaseException e) {
+            assertEquals(mensagem, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> estatisticas(String nome) {
+        return (Map<String, Object>) CircuitBreaker.getEstados().get(nome);
+    }
+
+    private static String estado(String nome) {
+        return (String) estatisticas(nome).get("estado");
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package fiap.tds.infraestructure;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CompressaoInterceptorTest {
+
+    /**
+     * Test to see that the encoding follows the Accept-Encoding q-values, with gzip winning ties.
+     */
+    @Test
+    public void testEscolhaPelosValoresQ() {
+        assertNull(CompressaoInterceptor.escolherCodificacao(null));
+        assertNull(CompressaoInterceptor.escolherCodificacao(" "));
+        assertNull(CompressaoInterceptor.escolherCodificacao("br, identity"));
+
+        assertEquals("gzip", CompressaoInterceptor.escolherCodificacao("gzip, deflate, br"));
+        assertEquals("gzip", CompressaoInterceptor.escolherCodificacao("deflate, gzip"));
+        assertEquals("gzip", CompressaoInterceptor.escolherCodificacao("x-gzip"));
+        assertEquals("gzip", CompressaoInterceptor.escolherCodificacao(" GZIP ; q=1.0"));
+        assertEquals("deflate", CompressaoInterceptor.escolherCodificacao("deflate"));
+        assertEquals("deflate", CompressaoInterceptor.escolherCodificacao("gzip;q=0.5, deflate;q=0.8"));
+    }
+
+    /**
+     * Test to see that q=0 excludes a coding and that "*" only covers the codings not listed.
+     */
+    @Test
+    public void testExclusaoECuringa() {
+        assertEquals("deflate", CompressaoInterceptor.escolherCodificacao("gzip;q=0, deflate"));
+        assertNull(CompressaoInterceptor.escolherCodificacao("gzip;q=0"));
+        assertNull(CompressaoInterceptor.escolherCodificacao("gzip;q=invalido"));
+
+        assertEquals("gzip", CompressaoInterceptor.escolherCodificacao("*"));
+        assertNull(CompressaoInterceptor.escolherCodificacao("*;q=0"));
+        assertEquals("gzip", CompressaoInterceptor.escolherCodificacao("deflate;q=0.5, *;q=0.9"));
+        assertEquals("deflate", CompressaoInterceptor.escolherCodificacao("gzip;q=0, *"));
+    }
+}
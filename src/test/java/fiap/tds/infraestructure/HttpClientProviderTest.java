@@ -0,0 +1,60 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.tools.ServicosExternosStub;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class HttpClientProviderTest {
+
+    /**
+     * Test to see that a 503 from the stub is a failure, not an answer, and so opens the breaker.
+     */
+    @Test
+    public void testErroDoServicoAbreOCircuito() throws Throwable {
+        System.setProperty("stub.viacep.taxa-erro", "1");
+        System.setProperty("stub.viacep.latencia.distribuicao", "FIXA");
+        System.setProperty("stub.viacep.latencia.mediana-ms", "1");
+        System.setProperty("resiliencia.teste-http.falhas-para-abrir", "2");
+        ServicosExternosStub stub = ServicosExternosStub.iniciar("localhost", 18089);
+        try {
+            String url = stub.getUrlViaCep() + "11060001/json/";
+            try {
+                HttpClientProvider.get(url, 2000);
+                fail("Uma resposta 503 não deveria ser devolvida como corpo");
+            } catch (IOException e) {
+                assertEquals("Status 503 de localhost", e.getMessage());
+            }
+
+            CircuitBreaker circuito = CircuitBreaker.de("teste-http");
+            for (int i = 0; i < 2; i++) {
+                try {
+                    circuito.executar(() -> {
+                        try {
+                            return HttpClientProvider.get(url, 2000);
+                        } catch (IOException e) {
+                            throw new DatabaseException("Erro ao buscar endereço por CEP.", e);
+                        }
+                    }, null);
+                    fail("A chamada deveria ter falhado");
+                } catch (DatabaseException e) {
+                    assertEquals("Erro ao buscar endereço por CEP.", e.getMessage());
+                }
+            }
+            assertEquals("ABERTO", ((Map<?, ?>) CircuitBreaker.getEstados().get("teste-http")).get("estado"));
+            // As respostas de erro foram consumidas e as conexões voltaram ao pool
+            assertEquals(0, HttpClientProvider.getEstatisticas().get("emUso"));
+        } finally {
+            stub.parar();
+            System.clearProperty("stub.viacep.taxa-erro");
+            System.clearProperty("stub.viacep.latencia.distribuicao");
+            System.clearProperty("stub.viacep.latencia.mediana-ms");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SingleFlightTest {
+
+    /**
+     * Test to see that concurrent calls with the same key share one execution,
+     * while a different key runs on its own without waiting.
+     */
+    @Test
+    public void testChamadasSimultaneasCompartilhamUmaExecucao() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                resultados.add(executor.submit(() -> {
+                    try {
+                        return singleFlight.executar("11060001", () -> {
+                            execucoes.incrementAndGet();
+                            aguardar(liberar);
+                            return "SP";
+                        });
+                    } catch (DatabaseException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+            }
+
+            // Outra chave não espera a chamada em andamento
+            assertEquals("RJ", singleFlight.executar("22070011", () -> "RJ"));
+
+            while (singleFlight.getCompartilhadas() < 7) {
+                Thread.sleep(5);
+            }
+            liberar.countDown();
+            for (Future<String> resultado : resultados) {
+                assertEquals("SP", resultado.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, execucoes.get());
+            assertEquals(0, singleFlight.getEmAndamento());
+        } catch (DatabaseException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test to see that the error of the shared call reaches every waiting thread.
+     */
+    @Test
+    public void testErroEhRepassadoParaQuemAguarda() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                resultados.add(executor.submit(() -> {
+                    try {
+                        return singleFlight.executar("email@exemplo.com", () -> {
+                            aguardar(liberar);
+                            throw new DatabaseException("Erro ao verificar email.");
+                        });
+                    } catch (DatabaseException e) {
+                        return e.getMessage();
+                    }
+                }));
+            }
+            while (singleFlight.getCompartilhadas() < 1) {
+                Thread.sleep(5);
+            }
+            liberar.countDown();
+            for (Future<String> resultado : resultados) {
+                assertEquals("Erro ao verificar email.", resultado.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(0, singleFlight.getEmAndamento());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fiap.tds.infraestructure;
+
+import fiap.tds.exception.DatabaseException;
+import fiap.tds.models.Report;
+import fiap.tds.models.UserReport;
+import fiap.tds.repositories.ReportRepository;
+import fiap.tds.repositories.UserReportRepository;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class UnitOfWorkTest {
+
+    private final UserReportRepository userReportRepository = new UserReportRepository();
+    private final ReportRepository reportRepository = new ReportRepository();
+
+    /**
+     * Test to see that when the second insert fails, the first one is rolled back with it.
+     */
+    @Test
+    public void testFalhaNoSegundoInsertDesfazOPrimeiro() throws Throwable {
+        int[] userId = {0};
+        try {
+            UnitOfWork.executar(() -> {
+                userId[0] = userReportRepository.inserir(novoUsuario());
+                // Descrição maior que a coluna (1000)
+                reportRepository.inserir(novoReport(userId[0], "x".repeat(1001)));
+                return null;
+            });
+            fail("O segundo insert deveria ter falhado");
+        } catch (DatabaseException e) {
+            assertTrue(userId[0] > 0);
+        }
+        assertNull(userReportRepository.buscarPorIdIncluindoPendentes(userId[0]));
+    }
+
+    /**
+     * Test to see that both inserts are committed together when nothing fails.
+     */
+    @Test
+    public void testSucessoGravaTudo() throws Throwable {
+        int[] ids = UnitOfWork.executar(() -> {
+            int userId = userReportRepository.inserir(novoUsuario());
+            return new int[]{userId, reportRepository.inserir(novoReport(userId, "Mancha de óleo"))};
+        });
+        assertNotNull(userReportRepository.buscarPorId(ids[0]));
+        assertEquals(ids[0], reportRepository.buscarPorId(ids[1]).getUserReportId());
+    }
+
+    private static UserReport novoUsuario() {
+        return new UserReport(0, "Ana Lima", "ana@exemplo.com", "52998224725", "11060-001");
+    }
+
+    private static Report novoReport(int userId, String descricao) {
+        Report report = new Report();
+        report.setUserReportId(userId);
+        report.setTipo("incidente");
+        report.setDescricao(descricao);
+        report.setDataHora(new Timestamp(System.currentTimeMillis()));
+        return report;
+    }
+}
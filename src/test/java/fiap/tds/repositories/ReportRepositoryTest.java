@@ -0,0 +1,76 @@
+package fiap.tds.repositories;
+
+import fiap.tds.models.Report;
+import fiap.tds.models.UserReport;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReportRepositoryTest {
+
+    private final UserReportRepository userReportRepository = new UserReportRepository();
+    private final ReportRepository reportRepository = new ReportRepository();
+
+    /**
+     * Test to see that PENDING and REJECTED reports, and their users, are hidden from the public reads,
+     * but not from buscarStatus.
+     */
+    @Test
+    public void testSomenteValidosSaoPublicados() throws Throwable {
+        Report pendente = inserir(Report.PENDING);
+        Report rejeitado = inserir(Report.PENDING);
+        Report valido = inserir(null);
+        reportRepository.atualizarStatus(rejeitado.getId(), Report.REJECTED, "Email do usuário é inválido.");
+
+        assertNull(reportRepository.buscarPorId(pendente.getId()));
+        assertNull(reportRepository.buscarPorId(rejeitado.getId()));
+        assertNotNull(reportRepository.buscarPorId(valido.getId()));
+
+        List<Integer> pagina = reportRepository.listarPagina(pendente.getId() - 1, 1000).stream()
+                .map(Report::getId).toList();
+        assertFalse(pagina.contains(pendente.getId()));
+        assertFalse(pagina.contains(rejeitado.getId()));
+        assertTrue(pagina.contains(valido.getId()));
+
+        assertEquals(Report.PENDING, reportRepository.buscarStatus(pendente.getId()).getStatus());
+        assertEquals(Report.REJECTED, reportRepository.buscarStatus(rejeitado.getId()).getStatus());
+
+        assertNull(userReportRepository.buscarPorId(rejeitado.getUserReportId()));
+        assertNotNull(userReportRepository.buscarPorIdIncluindoPendentes(rejeitado.getUserReportId()));
+        assertNotNull(userReportRepository.buscarPorId(valido.getUserReportId()));
+    }
+
+    /**
+     * Test to see that an update revalidates the report and that a late background result is then discarded.
+     */
+    @Test
+    public void testAtualizacaoPrevaleceSobreValidacaoAtrasada() throws Throwable {
+        Report report = inserir(Report.PENDING);
+        report.setTipo("acidente");
+        reportRepository.atualizar(report);
+
+        assertFalse(reportRepository.atualizarStatus(report.getId(), Report.REJECTED, "CEP do usuário é inválido."));
+        assertEquals(Report.VALID, reportRepository.buscarStatus(report.getId()).getStatus());
+        assertNull(reportRepository.buscarStatus(report.getId()).getMotivoStatus());
+    }
+
+    private Report inserir(String status) throws Throwable {
+        Report report = new Report();
+        report.setUserReportId(userReportRepository.inserir(
+                new UserReport(0, "Ana Lima", "ana@exemplo.com", "52998224725", "11060-001")));
+        report.setTipo("incidente");
+        report.setDescricao("Mancha de óleo");
+        report.setDataHora(new Timestamp(System.currentTimeMillis()));
+        report.setStatus(status);
+        report.setId(reportRepository.inserir(report));
+        return report;
+    }
+}
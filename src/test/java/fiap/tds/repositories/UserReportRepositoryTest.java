@@ -0,0 +1,40 @@
+package fiap.tds.repositories;
+
+import fiap.tds.models.Report;
+import fiap.tds.models.UserReport;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class UserReportRepositoryTest {
+
+    private final UserReportRepository userReportRepository = new UserReportRepository();
+    private final ReportRepository reportRepository = new ReportRepository();
+
+    /**
+     * Test to see that inserir returns the generated id of the new row.
+     */
+    @Test
+    public void testInserirRetornaIdGerado() throws Throwable {
+        int primeiro = userReportRepository.inserir(new UserReport(0, "Maria Silva", "maria@exemplo.com", "52998224725", "11060-001"));
+        int segundo = userReportRepository.inserir(new UserReport(0, "João Souza", "joao@exemplo.com", "11144477735", "22021-001"));
+        assertNotEquals(primeiro, segundo);
+
+        UserReport encontrado = userReportRepository.buscarPorId(segundo);
+        assertNotNull(encontrado);
+        assertEquals("joao@exemplo.com", encontrado.getEmail());
+
+        Report report = new Report();
+        report.setUserReportId(segundo);
+        report.setTipo("incidente");
+        report.setDescricao("Óleo na praia");
+        report.setDataHora(new Timestamp(System.currentTimeMillis()));
+        int reportId = reportRepository.inserir(report);
+        assertEquals(segundo, reportRepository.buscarPorId(reportId).getUserReportId());
+    }
+}
@@ -0,0 +1,48 @@
+package fiap.tds.service;
+
+import fiap.tds.models.Pagina;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PaginacaoTest {
+
+    /**
+     * Test to see that the extra row only signals a next page, whose cursor is the last returned ID.
+     */
+    @Test
+    public void testMontarPagina() {
+        Pagina<Integer> ultima = Paginacao.montar(List.of(4, 7, 9), 3, id -> id);
+        assertEquals(List.of(4, 7, 9), ultima.getItens());
+        assertNull(ultima.getProximoCursor());
+        assertEquals(3, ultima.getLimite());
+
+        Pagina<Integer> comProxima = Paginacao.montar(List.of(4, 7, 9, 12), 3, id -> id);
+        assertEquals(List.of(4, 7, 9), comProxima.getItens());
+        assertEquals(9, comProxima.getProximoCursor());
+
+        Pagina<Integer> vazia = Paginacao.montar(List.of(), 3, id -> id);
+        assertEquals(List.of(), vazia.getItens());
+        assertNull(vazia.getProximoCursor());
+    }
+
+    /**
+     * Test to see that the limit falls back to the default, is capped at the maximum and that a
+     * missing or negative cursor starts from the beginning.
+     */
+    @Test
+    public void testLimiteECursor() {
+        assertEquals(Math.min(Paginacao.LIMITE_PADRAO, Paginacao.LIMITE_MAXIMO), Paginacao.limitar(null));
+        assertEquals(Math.min(Paginacao.LIMITE_PADRAO, Paginacao.LIMITE_MAXIMO), Paginacao.limitar(0));
+        assertEquals(1, Paginacao.limitar(1));
+        assertEquals(Paginacao.LIMITE_MAXIMO, Paginacao.limitar(Paginacao.LIMITE_MAXIMO + 1));
+
+        assertEquals(0, Paginacao.cursor(null));
+        assertEquals(0, Paginacao.cursor(-5));
+        assertEquals(42, Paginacao.cursor(42));
+    }
+}
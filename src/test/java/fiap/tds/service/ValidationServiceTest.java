@@ -0,0 +1,53 @@
+package fiap.tds.service;
+
+import fiap.tds.exception.DatabaseException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class ValidationServiceTest {
+
+    private final ValidationService validationService = new ValidationService();
+
+    /**
+     * Test to see that the CPF check digits are verified, with or without punctuation.
+     */
+    @Test
+    public void testCpfValido() {
+        assertTrue(ValidationService.isCpfValido("52998224725"));
+        assertTrue(ValidationService.isCpfValido("111.444.777-35"));
+        assertFalse(ValidationService.isCpfValido("52998224726"));
+        assertFalse(ValidationService.isCpfValido("11111111111"));
+        assertFalse(ValidationService.isCpfValido("5299822472"));
+        assertFalse(ValidationService.isCpfValido("529982247250"));
+        assertFalse(ValidationService.isCpfValido("5299822472a"));
+    }
+
+    /**
+     * Test to see that invalid data is refused by the local checks, without reaching the external services.
+     */
+    @Test
+    public void testVerificacoesLocaisRecusamDadosInvalidos() throws Throwable {
+        assertRecusado(ValidationService.EMAIL_INVALIDO, "maria.exemplo.com", "11060-001", null);
+        assertRecusado(ValidationService.EMAIL_INVALIDO, null, "11060-001", null);
+        assertRecusado(ValidationService.CEP_INVALIDO, "maria@exemplo.com", "1106", null);
+        assertRecusado(ValidationService.CPF_INVALIDO, "maria@exemplo.com", "11060-001", "123.456.789-00");
+
+        // CPF não informado não é verificado
+        validationService.validarLocal("maria@exemplo.com", "11060-001", "");
+        validationService.validarLocal("maria@exemplo.com", "11060001", "529.982.247-25");
+    }
+
+    private void assertRecusado(String mensagem, String email, String cep, String cpf) {
+        try {
+            validationService.validarLocal(email, cep, cpf);
+            fail("Dados deveriam ter sido recusados: " + email + ", " + cep + ", " + cpf);
+        } catch (DatabaseException e) {
+            assertEquals(mensagem, e.getMessage());
+        }
+    }
+}